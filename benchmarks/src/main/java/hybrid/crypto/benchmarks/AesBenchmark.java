@@ -0,0 +1,47 @@
+package hybrid.crypto.benchmarks;
+
+import hybrid.crypto.keys.SymmetricKeys;
+import hybrid.crypto.keys.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AesKey.encrypt / decrypt (byte[]) for both AES types across payload sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesBenchmark {
+    @Param({"AES_1", "AES_2"})
+    private Type type;
+
+    @Param({"1024", "65536", "1048576", "16777216"})
+    private int size;
+
+    private SymmetricKeys key;
+    private byte[] data;
+    private byte[] encrypted;
+
+    @Setup
+    public void setup() throws Exception {
+        key = SymmetricKeys.generateKey(type, "benchmark");
+        data = new byte[size];
+        new SecureRandom().nextBytes(data);
+        encrypted = key.encrypt(data);
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return key.encrypt(data);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Exception {
+        return key.decrypt(encrypted);
+    }
+}
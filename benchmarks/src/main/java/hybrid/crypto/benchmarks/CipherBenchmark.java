@@ -0,0 +1,91 @@
+package hybrid.crypto.benchmarks;
+
+import hybrid.crypto.keys.AesKey;
+import hybrid.crypto.keys.AsymmetricKeys;
+import hybrid.crypto.keys.MyKeyPair;
+import hybrid.crypto.keys.PublicRsaKey;
+import hybrid.crypto.keys.Type;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * small-message cost of AesKey / PublicRsaKey against the previous implementation
+ * (Cipher.getInstance() and a new SecretKeySpec on every call), reproduced in the *Uncached methods;
+ * aesGcmEncrypt compares the chunked AES-GCM type with AES-CBC
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CipherBenchmark {
+    @Param({"64", "1024", "16384", "1048576"})
+    private int size;
+
+    private final SecureRandom random = new SecureRandom();
+    private byte[] data;
+    private byte[] secretKeyBytes;
+    private AesKey aesKey;
+    private AesKey aesGcmKey;
+    private PublicRsaKey publicRsaKey;
+    private byte[] keyToWrap;
+
+    @Setup
+    public void setup() throws Exception {
+        data = new byte[size];
+        random.nextBytes(data);
+
+        final KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(Type.AES_1.getKeySize(), random);
+        final SecretKey secretKey = keyGen.generateKey();
+        secretKeyBytes = secretKey.getEncoded();
+        aesKey = new AesKey(secretKey, Type.AES_1, "benchmark");
+        aesGcmKey = new AesKey(secretKey, Type.AES_2, "benchmark");
+
+        final MyKeyPair pair = AsymmetricKeys.generatePair(Type.RSA_1, "benchmark");
+        publicRsaKey = (PublicRsaKey) pair.publicRsaKey;
+        keyToWrap = new byte[Type.AES_1.getKeySize() / 8];
+        random.nextBytes(keyToWrap);
+    }
+
+    @Benchmark
+    public byte[] aesEncryptUncached() throws Exception {
+        final byte[] iv = new byte[16];
+        random.nextBytes(iv);
+        final Cipher cipher = Cipher.getInstance(Type.AES_1.getCipherType());
+        cipher.init(Cipher.ENCRYPT_MODE,
+                new SecretKeySpec(secretKeyBytes, 0, secretKeyBytes.length, "AES"),
+                new IvParameterSpec(iv), random);
+        return cipher.doFinal(data);
+    }
+
+    @Benchmark
+    public byte[] aesEncryptCached() throws Exception {
+        return aesKey.encrypt(data);
+    }
+
+    @Benchmark
+    public byte[] aesGcmEncrypt() throws Exception {
+        return aesGcmKey.encrypt(data);
+    }
+
+    @Benchmark
+    public byte[] rsaWrapUncached() throws Exception {
+        final Cipher cipher = Cipher.getInstance(Type.RSA_1.getCipherType());
+        cipher.init(Cipher.ENCRYPT_MODE, publicRsaKey.getPublicKey());
+        return cipher.doFinal(keyToWrap);
+    }
+
+    @Benchmark
+    public byte[] rsaWrapCached() throws Exception {
+        return publicRsaKey.encrypt(keyToWrap);
+    }
+}
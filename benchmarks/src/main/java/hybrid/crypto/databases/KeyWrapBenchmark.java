@@ -0,0 +1,45 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * per-receiver cost of a message: wrapping the payload key with the receiver's public key
+ * (Message.wrapKey) and unwrapping it (Message.unwrapKey), RSA_1 (OAEP) vs RSA_2 (PKCS#1 v1.5) vs EC_1 (ECDH P-256)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyWrapBenchmark {
+    @Param({"RSA_1", "RSA_2", "EC_1"})
+    private Type rsaType;
+
+    private SymmetricKeys payloadKey;
+    private Card receiversCard;
+    private PrivateRsaKey privateRsaKey;
+    private byte[] wrapped;
+
+    @Setup
+    public void setup() throws Exception {
+        final MyKeyPair pair = AsymmetricKeys.generatePair(rsaType, "benchmark");
+        receiversCard = new Card(new Identifier(), "benchmark", (PublicRsaKey) pair.publicRsaKey);
+        privateRsaKey = (PrivateRsaKey) pair.privateRsaKey;
+        payloadKey = SymmetricKeys.generateKey(Type.AES_2, "benchmark");
+        wrapped = Message.wrapKey(payloadKey, receiversCard);
+    }
+
+    @Benchmark
+    public byte[] wrap() throws Exception {
+        return Message.wrapKey(payloadKey, receiversCard);
+    }
+
+    @Benchmark
+    public SymmetricKeys unwrap() throws Exception {
+        return Message.unwrapKey(wrapped, privateRsaKey);
+    }
+}
@@ -0,0 +1,76 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.keys.PrivateRsaKey;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message end to end: file -> .hcm / JSON -> file, including key wrapping and disk I/O
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class MessageBenchmark {
+    @Param({Message.CONTAINER_EXT, Message.JSON_EXT})
+    private String format;
+
+    @Param({"1024", "1048576", "16777216"})
+    private int size;
+
+    private File dir;
+    private File input;
+    private File encrypted;
+    private Database database;
+    private Card card;
+    private PrivateRsaKey privateRsaKey;
+    private OutputPolicy encOutput;
+    private OutputPolicy decOutput;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("message-bench").toFile();
+        final File encDir = new File(dir, "enc");
+        final File decDir = new File(dir, "dec");
+        encDir.mkdir();
+        decDir.mkdir();
+        encOutput = OutputPolicy.inDirectory(encDir, OutputPolicy.Conflict.OVERWRITE);
+        decOutput = OutputPolicy.inDirectory(decDir, OutputPolicy.Conflict.OVERWRITE);
+
+        final byte[] data = new byte[size];
+        new SecureRandom().nextBytes(data);
+        input = new File(dir, "payload.bin");
+        Files.write(input.toPath(), data);
+
+        database = new Database("benchmark", "benchmark");
+        card = database.getCardList().get(0);
+        privateRsaKey = database.getOwnerPrivKey();
+        encrypted = encrypt();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public File encrypt() throws Exception {
+        final Message message = new Message(card, database.getOwnerId(), input);
+        return (Message.JSON_EXT.equals(format))
+                ? (message.encryptAndSaveToJson(encOutput))
+                : (message.encryptAndSaveToContainer(encOutput));
+    }
+
+    @Benchmark
+    public File decrypt() throws Exception {
+        return Message.recreateFile(card, privateRsaKey, encrypted, decOutput);
+    }
+}
@@ -0,0 +1,54 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.Kdf;
+import hybrid.crypto.keys.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * unlocking a profile (legacy PBKDF2, 65536 iterations, and the default scrypt) and importing a card from its JSON file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ProfileBenchmark {
+    private final byte[] salt = new byte[16];
+    private File dir;
+    private File cardFile;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("profile-bench").toFile();
+        final Database database = new Database("benchmark", "benchmark");
+        cardFile = new File(dir, "card.json");
+        database.getCardList().get(0).toJsonFile(cardFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cardFile.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public Object pswdToKey() throws Exception {
+        return Database.pswdToKey("correct horse battery staple", salt);
+    }
+
+    @Benchmark
+    public Object pswdToKeyDefaultKdf() throws Exception {
+        return Database.pswdToKey("correct horse battery staple", salt, Kdf.defaults(), Type.AES_2);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Card cardFromJsonFile() throws Exception {
+        return Card.fromJsonFile(cardFile);
+    }
+}
@@ -0,0 +1,30 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.SerializationUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Base64;
+
+public class Base64Conversion {
+    public static String objToBase64Str(@NonNull final Object object) {
+        final byte[] bytes = SerializationUtils.serialize((Serializable) object);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * only the allowed classes are deserialized: the strings come from imported files
+     */
+    public static <T> T base64StrToObj(@NonNull final String string,
+                                       @NonNull final Class<T> type,
+                                       @NonNull final String... allowedClasses) throws Exception {
+        final byte[] decodedBytes = Base64.getDecoder().decode(string);
+        try (ObjectInputStream in = new RestrictedObjectInputStream(
+                new ByteArrayInputStream(decodedBytes), Arrays.asList(allowedClasses))) {
+            return type.cast(in.readObject());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package hybrid.crypto.algorithms;
+
+import hybrid.crypto.keys.Keys;
+import lombok.NonNull;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public abstract class FileProcessing {
+
+    protected static void writeBytesToFile(File file, byte[] bytes) throws IOException {
+        try (FileChannel out = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    public static String getExtWithDot(@NonNull File file) {
+        return "." + FilenameUtils.getExtension(file.getAbsolutePath());
+    }
+
+    public static String getNameWithoutExt(@NonNull File file) {
+        return FilenameUtils.getBaseName(file.getAbsolutePath());
+    }
+
+    public abstract void processFile(@NonNull File in, @NonNull File out, @NonNull Keys keys) throws Exception;
+
+}
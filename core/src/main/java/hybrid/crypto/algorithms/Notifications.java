@@ -0,0 +1,16 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+
+public class Notifications {
+    private static volatile Notifier notifier =
+            (message, level) -> System.err.println(level + ": " + message);
+
+    public static void setNotifier(@NonNull final Notifier notifier) {
+        Notifications.notifier = notifier;
+    }
+
+    public static void notify(@NonNull final String message, @NonNull final Notifier.Level level) {
+        notifier.notify(message, level);
+    }
+}
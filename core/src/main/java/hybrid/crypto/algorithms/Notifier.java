@@ -0,0 +1,16 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+
+/**
+ * receives user-facing messages of the core
+ * (dialogs in the GUI, standard error in the CLI)
+ */
+public interface Notifier {
+
+    enum Level {
+        INFORMATION, WARNING, ERROR
+    }
+
+    void notify(@NonNull String message, @NonNull Level level);
+}
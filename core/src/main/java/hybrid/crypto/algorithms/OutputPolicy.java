@@ -0,0 +1,49 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+
+import java.io.File;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Paths;
+
+import static hybrid.crypto.algorithms.Validation.isEmpty;
+import static hybrid.crypto.algorithms.Utils.randAlphabeticStr;
+
+/**
+ * decides where a file produced by encryption or decryption is written
+ */
+public interface OutputPolicy {
+
+    /**
+     * what to do when 'name.ext' already exists in the output directory
+     */
+    enum Conflict {
+        RENAME, OVERWRITE, FAIL
+    }
+
+    File resolve(@NonNull String baseName, @NonNull String ext) throws Exception;
+
+    /**
+     * non-interactive: 'name.ext' in the given directory, 'name[random].ext' when taken;
+     * the returned file is created (reserved), so concurrent callers never get the same one
+     */
+    static OutputPolicy inDirectory(@NonNull final File dir) {
+        return inDirectory(dir, Conflict.RENAME);
+    }
+
+    static OutputPolicy inDirectory(@NonNull final File dir, @NonNull final Conflict conflict) {
+        return (baseName, ext) -> {
+            final String dotExt = isEmpty(ext) ? "" : ("." + ext);
+            File f = Paths.get(dir.getAbsolutePath(), baseName + dotExt).toFile();
+            if (f.createNewFile() || conflict == Conflict.OVERWRITE) return f;
+            if (conflict == Conflict.FAIL) {
+                throw new FileAlreadyExistsException(f.getAbsolutePath());
+            }
+            while (!f.createNewFile()) {
+                f = Paths.get(dir.getAbsolutePath(),
+                        String.format("%s[%s]%s", baseName, randAlphabeticStr(9), dotExt)).toFile();
+            }
+            return f;
+        };
+    }
+}
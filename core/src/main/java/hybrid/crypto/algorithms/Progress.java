@@ -0,0 +1,37 @@
+package hybrid.crypto.algorithms;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * bytes processed by a long encryption or decryption, and its cooperative cancellation
+ * (the GUI's progress bar and cancel button); may be called from several threads at once
+ */
+public interface Progress {
+
+    /**
+     * counts nothing, never cancelled
+     */
+    Progress NONE = new Progress() {
+        @Override
+        public void add(final long bytes) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    void add(long bytes);
+
+    boolean isCancelled();
+
+    /**
+     * called by the crypto loops once per chunk, before the chunk is processed:
+     * counts it, then stops the operation if it was cancelled
+     */
+    default void advance(final long bytes) {
+        add(bytes);
+        if (isCancelled()) throw new CancellationException("cancelled");
+    }
+}
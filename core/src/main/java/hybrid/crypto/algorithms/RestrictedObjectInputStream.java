@@ -0,0 +1,35 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * for Java-serialized data from outside the application (imported files):
+ * only the listed classes are resolved, anything else fails before it is loaded or instantiated
+ */
+public class RestrictedObjectInputStream extends ObjectInputStream {
+    private final Set<String> allowedClasses;
+
+    public RestrictedObjectInputStream(@NonNull final InputStream in,
+                                       @NonNull final Collection<String> allowedClasses) throws IOException {
+        super(in);
+        this.allowedClasses = new HashSet<>(allowedClasses);
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        if (!allowedClasses.contains(desc.getName())) {
+            throw new InvalidClassException(desc.getName(), "class not allowed");
+        }
+        return super.resolveClass(desc);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException {
+        throw new InvalidClassException("proxy", "class not allowed");
+    }
+}
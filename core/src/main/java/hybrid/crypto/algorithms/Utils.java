@@ -0,0 +1,49 @@
+package hybrid.crypto.algorithms;
+
+import lombok.NonNull;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+
+public class Utils {
+    public final static SecureRandom secureRandom = new SecureRandom();
+    public final static String USER_DATA_DIR_NAME = "Java-Hybrid-Cryptosystem-Data";
+    public final static String USER_DATA_DIR_PROPERTY = "hybrid.crypto.dataDir";
+    public final static Path FILESYSTEM_ROOT = File.listRoots()[0].toPath();
+    public final static Path USER_DATA_DIR = Paths.get(System.getProperty(USER_DATA_DIR_PROPERTY,
+            Paths.get(FILESYSTEM_ROOT.toString(), USER_DATA_DIR_NAME).toString()));
+
+    public static void createDirIfNotExists(final Path path) {
+        path.toFile().mkdir();
+    }
+
+    public static String randAlphabeticStr(final int length) {
+        final int leftLimit = 97; // 'a'
+        final int rightLimit = 122; // 'z'
+        return secureRandom.ints(leftLimit, rightLimit + 1)
+                .limit(length)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    public static String byteArrToHexStr(@NonNull final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    public static void errPrintln(Exception e) {
+        StackTraceElement l = e.getStackTrace()[0];
+        System.err.println("class: " + l.getClassName());
+        System.err.println("method: " + l.getMethodName());
+        System.err.println("line: " + l.getLineNumber());
+        System.err.println("msg: " + e.getMessage());
+    }
+}
@@ -1,12 +1,8 @@
 package hybrid.crypto.algorithms;
 
-import javafx.scene.control.Alert;
-
 import java.io.File;
 import java.util.regex.Pattern;
 
-import static hybrid.crypto.view.Main.showDialog;
-
 public class Validation {
     public static final int DATABASE_PSWD_MAX_LEN = 52;
     public static final int MIN_NAME_LEN = 6;
@@ -30,28 +26,28 @@ public class Validation {
 
     public static boolean isNewNameValid(final String str) {
         if (isEmpty(str) || str.length() < MIN_NAME_LEN) {
-            showDialog(
+            Notifications.notify(
                     String.format(
                             "Min. name length: %d",
                             MIN_NAME_LEN
                     ),
-                    Alert.AlertType.WARNING);
+                    Notifier.Level.WARNING);
             return false;
         } else if (str.length() > MAX_NAME_LEN) {
-            showDialog(
+            Notifications.notify(
                     String.format(
                             "Max. name length: %d",
                             MAX_NAME_LEN
                     ),
-                    Alert.AlertType.WARNING);
+                    Notifier.Level.WARNING);
             return false;
         }
 
         final boolean alphanumeric = isAlphanumeric(str);
 
         if (!alphanumeric) {
-            showDialog("New names: expected alphanumeric string",
-                    Alert.AlertType.WARNING);
+            Notifications.notify("New names: expected alphanumeric string",
+                    Notifier.Level.WARNING);
         }
 
         return alphanumeric;
@@ -0,0 +1,381 @@
+package hybrid.crypto.cli;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.databases.BatchProcessor;
+import hybrid.crypto.databases.Card;
+import hybrid.crypto.databases.CardBundle;
+import hybrid.crypto.databases.Database;
+import hybrid.crypto.databases.Mode;
+import hybrid.crypto.keys.Kdf;
+import hybrid.crypto.keys.Type;
+import hybrid.crypto.metrics.Metrics;
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static hybrid.crypto.algorithms.Utils.USER_DATA_DIR;
+import static hybrid.crypto.algorithms.Utils.USER_DATA_DIR_PROPERTY;
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+import static hybrid.crypto.algorithms.Utils.createDirIfNotExists;
+import static hybrid.crypto.algorithms.Validation.MAX_NAME_LEN;
+import static hybrid.crypto.algorithms.Validation.MIN_NAME_LEN;
+import static hybrid.crypto.algorithms.Validation.isAlphanumeric;
+
+/**
+ * headless entry point, never starts the JavaFX toolkit; the main class of the core module's jar:
+ * java -jar core/target/Java-Hybrid-Cryptosystem-core-&lt;version&gt;-jar-with-dependencies.jar
+ * &lt;command&gt; &lt;profile&gt; [options] [files]
+ */
+public class Cli {
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: Cli <command> <profile> [options] [arguments]",
+            "",
+            "commands:",
+            "  create <profile> <owner name>          create a new profile",
+            "  rekey <profile>                        re-encrypt a profile with new key derivation settings",
+            "  calibrate                              print key derivation settings for --unlock-ms",
+            "  cards <profile>                        list cards",
+            "  import-card <profile> <file|dir>...    add or update cards from card files and bundles",
+            "  export-card <profile> <card> <file>    save a card as JSON",
+            "  export-cards <profile> <file|dir>      save all cards as one bundle, or one file each into a directory",
+            "  encrypt <profile> --to <card>[,<card>...] <file|dir>...",
+            "  decrypt <profile> <file|dir>...",
+            "",
+            "options:",
+            "  --password-env <VAR>     read the profile password from an environment variable",
+            "  --password-file <file>   read the profile password from the first line of a file",
+            "                           (default: console, or the first line of standard input)",
+            "  --out <dir>              output directory (default: current directory)",
+            "  --on-conflict <rename|overwrite|fail>   existing output files (default: rename)",
+            "  --json                   encrypt to the JSON format instead of .hcm (a single --to card)",
+            "  --fail-fast              skip remaining files after the first failure",
+            "  --threads <n>            worker threads (default: number of cores)",
+            "  --kdf <scrypt|pbkdf2>    password key derivation for create/rekey (default: scrypt)",
+            "  --unlock-ms <n>          tune the key derivation to take about n ms on this machine",
+            "  --key-type <rsa|ec>      owner key type for create: RSA-4096 or ECDH P-256 (default: rsa)",
+            "",
+            "<card> is a card ID (or its unique prefix) or a card owner's name.",
+            String.format("Profiles are kept in %s (-D%s=<dir> to change).",
+                    USER_DATA_DIR, USER_DATA_DIR_PROPERTY));
+
+    private static final Set<String> VALUE_OPTIONS = new HashSet<>(Arrays.asList(
+            "--password-env", "--password-file", "--out", "--on-conflict", "--to", "--threads",
+            "--kdf", "--unlock-ms", "--key-type"));
+    private static final Set<String> FLAG_OPTIONS = new HashSet<>(Arrays.asList(
+            "--json", "--fail-fast"));
+
+    private static class UsageException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UsageException(String message) {
+            super(message);
+        }
+    }
+
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> arguments = new ArrayList<>();
+
+    private Cli(@NonNull final String[] args) throws UsageException {
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (VALUE_OPTIONS.contains(arg)) {
+                if (i + 1 >= args.length) throw new UsageException("missing value for " + arg);
+                options.put(arg, args[++i]);
+            } else if (FLAG_OPTIONS.contains(arg)) {
+                options.put(arg, "");
+            } else if (arg.startsWith("--")) {
+                throw new UsageException("unknown option " + arg);
+            } else {
+                arguments.add(arg);
+            }
+        }
+        if (options.containsKey("--json") && options.getOrDefault("--to", "").contains(",")) {
+            throw new UsageException("--json: JSON messages have a single receiver, use .hcm for several");
+        }
+    }
+
+    public static void main(String[] args) {
+        Metrics.register();
+        System.exit(run(args));
+    }
+
+    public static int run(@NonNull final String[] args) {
+        try {
+            return new Cli(args).execute();
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (javax.crypto.BadPaddingException e) {
+            System.err.println("Access denied! Wrong password!");
+            return EXIT_FAILURE;
+        } catch (Exception e) {
+            System.err.println("error: " + e);
+            return EXIT_FAILURE;
+        }
+    }
+
+    private String argument(final int index) throws UsageException {
+        if (index >= arguments.size()) throw new UsageException("missing argument");
+        return arguments.get(index);
+    }
+
+    private int execute() throws Exception {
+        if (arguments.isEmpty()) throw new UsageException("missing command");
+        final String command = argument(0);
+        if (command.equals("calibrate")) return calibrate();
+        final String profile = argument(1);
+        createDirIfNotExists(USER_DATA_DIR);
+
+        switch (command) {
+            case "create":
+                return create(profile, argument(2));
+            case "rekey":
+                return rekey(profile);
+            case "cards":
+                return cards(open(profile));
+            case "import-card":
+                return importCards(profile, arguments.subList(2, arguments.size()));
+            case "export-card":
+                return exportCard(open(profile), argument(2), new File(argument(3)));
+            case "export-cards":
+                return exportCards(open(profile), new File(argument(2)));
+            case "encrypt":
+                return process(open(profile), Mode.ENCRYPTION);
+            case "decrypt":
+                return process(open(profile), Mode.DECRYPTION);
+            default:
+                throw new UsageException("unknown command " + command);
+        }
+    }
+
+    private String password() throws Exception {
+        if (options.containsKey("--password-env")) {
+            final String pswd = System.getenv(options.get("--password-env"));
+            if (pswd == null) throw new UsageException("environment variable not set");
+            return pswd;
+        }
+        if (options.containsKey("--password-file")) {
+            return Files.readAllLines(new File(options.get("--password-file")).toPath(),
+                    StandardCharsets.UTF_8).get(0);
+        }
+        final Console console = System.console();
+        if (console != null) {
+            return new String(console.readPassword("password: "));
+        }
+        final String pswd = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+        if (pswd == null) throw new UsageException("password required");
+        return pswd;
+    }
+
+    private Database open(@NonNull final String profile) throws Exception {
+        return open(profile, password());
+    }
+
+    private static Database open(@NonNull final String profile, @NonNull final String pswd) throws Exception {
+        final File file = Database.getDatabaseFile(profile);
+        if (!file.isFile()) throw new UsageException("profile not found: " + file);
+        return Database.decryptDatabaseAndLoad(file, pswd);
+    }
+
+    private static void checkNewName(@NonNull final String name) throws UsageException {
+        if (name.length() < MIN_NAME_LEN || name.length() > MAX_NAME_LEN || !isAlphanumeric(name)) {
+            throw new UsageException(String.format(
+                    "'%s': %d-%d alphanumeric characters expected", name, MIN_NAME_LEN, MAX_NAME_LEN));
+        }
+    }
+
+    private int create(@NonNull final String profile, @NonNull final String ownerName) throws Exception {
+        checkNewName(profile);
+        checkNewName(ownerName);
+        if (Database.getDatabaseFile(profile).exists()) {
+            throw new UsageException("profile already exists: " + profile);
+        }
+        final Kdf kdf = kdf();
+        final Type keyType = keyType();
+        final String pswd = password();
+        final Database database = new Database(profile, ownerName, keyType);
+        database.encryptAndSaveDatabase(pswd, kdf);
+        System.out.println(Database.getDatabaseFile(profile));
+        return EXIT_OK;
+    }
+
+    private int rekey(@NonNull final String profile) throws Exception {
+        final String pswd = password();
+        final Database database = open(profile, pswd);
+        final Kdf kdf = kdf();
+        database.encryptAndSaveDatabase(pswd, kdf);
+        System.out.println(kdf);
+        return EXIT_OK;
+    }
+
+    private int calibrate() throws Exception {
+        final Kdf kdf = kdf();
+        System.out.printf("%s: %d ms%n", kdf, kdf.measureMillis());
+        return EXIT_OK;
+    }
+
+    /**
+     * --key-type; null for RSA_1 or RSA_2, as chosen by Database
+     */
+    private Type keyType() throws UsageException {
+        final String keyType = options.getOrDefault("--key-type", "rsa");
+        switch (keyType) {
+            case "rsa":
+                return null;
+            case "ec":
+                return Type.EC_1;
+            default:
+                throw new UsageException("--key-type: rsa or ec");
+        }
+    }
+
+    /**
+     * --kdf and --unlock-ms
+     */
+    private Kdf kdf() throws Exception {
+        final Kdf.Algorithm algorithm;
+        try {
+            algorithm = options.containsKey("--kdf")
+                    ? (Kdf.Algorithm.byShortName(options.get("--kdf")))
+                    : (Kdf.defaults().getAlgorithm());
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("--kdf: scrypt or pbkdf2");
+        }
+        if (!options.containsKey("--unlock-ms")) return Kdf.defaults(algorithm);
+        final long millis;
+        try {
+            millis = Long.parseLong(options.get("--unlock-ms"));
+        } catch (NumberFormatException e) {
+            throw new UsageException("--unlock-ms: number expected");
+        }
+        if (millis <= 0) throw new UsageException("--unlock-ms: number expected");
+        return Kdf.calibrate(algorithm, millis);
+    }
+
+    private static int cards(@NonNull final Database database) {
+        for (final Card card : database.getCardList()) {
+            System.out.printf("%s\t%s%s%n",
+                    byteArrToHexStr(card.getPersonId().getIdBytes()),
+                    card.getPersonName(),
+                    card.getPersonId().equals(database.getOwnerId()) ? "\t(profile owner)" : "");
+        }
+        return EXIT_OK;
+    }
+
+    private int importCards(@NonNull final String profile, @NonNull final List<String> arguments) throws Exception {
+        final List<File> files = inputFiles(arguments);
+        if (files.isEmpty()) throw new UsageException("missing card file");
+        final int threads = threads();
+        final String pswd = password();
+        final Database database = open(profile, pswd);
+        final CardBundle.Import cards = CardBundle.read(files, threads);
+        for (final Map.Entry<File, Exception> failure : cards.getFailures().entrySet()) {
+            System.err.printf("FAILED %s: %s%n", failure.getKey().getName(), failure.getValue().getMessage());
+        }
+        database.addCards(cards.getCards());
+        database.saveChanges();
+        return (cards.getFailures().isEmpty()) ? (EXIT_OK) : (EXIT_FAILURE);
+    }
+
+    private int exportCards(@NonNull final Database database, @NonNull final File output) throws Exception {
+        final List<Card> cards = database.getCardList();
+        if (output.isDirectory()) {
+            CardBundle.writeEach(output, cards, threads());
+        } else {
+            CardBundle.write(output, cards);
+        }
+        System.out.printf("%d card(s) -> %s%n", cards.size(), output);
+        return EXIT_OK;
+    }
+
+    private static int exportCard(@NonNull final Database database,
+                                  @NonNull final String selector,
+                                  @NonNull final File output) throws Exception {
+        findCard(database, selector).toJsonFile(output);
+        return EXIT_OK;
+    }
+
+    private static Card findCard(@NonNull final Database database, @NonNull final String selector) throws UsageException {
+        final Set<Card> found = new LinkedHashSet<>(database.findCardsByIdPrefix(selector));
+        found.addAll(database.findCardsByName(selector));
+        if (found.size() != 1) {
+            throw new UsageException(String.format("card '%s': %d matches", selector, found.size()));
+        }
+        return found.iterator().next();
+    }
+
+    private int process(@NonNull final Database database, @NonNull final Mode defaultMode) throws Exception {
+        final List<Card> receivers = new ArrayList<>();
+        Mode mode = defaultMode;
+        if (defaultMode == Mode.ENCRYPTION) {
+            if (!options.containsKey("--to")) throw new UsageException("--to required");
+            for (final String selector : options.get("--to").split(",")) {
+                receivers.add(findCard(database, selector.trim()));
+            }
+            if (options.containsKey("--json")) mode = Mode.ENCRYPTION_JSON;
+        }
+
+        final List<File> files = inputFiles(arguments.subList(2, arguments.size()));
+        if (files.isEmpty()) throw new UsageException("no input files");
+
+        final File outDir = new File(options.getOrDefault("--out", "."));
+        if (!outDir.isDirectory()) throw new UsageException("no such directory: " + outDir);
+        final OutputPolicy.Conflict conflict;
+        try {
+            conflict = OutputPolicy.Conflict.valueOf(
+                    options.getOrDefault("--on-conflict", "rename").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new UsageException("--on-conflict: rename, overwrite or fail");
+        }
+        final BatchProcessor batchProcessor = new BatchProcessor(database, mode, receivers,
+                OutputPolicy.inDirectory(outDir, conflict), options.containsKey("--fail-fast"), threads());
+        final BatchProcessor.Summary summary = batchProcessor.process(files);
+        for (final BatchProcessor.Result result : summary.getResults()) {
+            if (result.getStatus() == BatchProcessor.Status.SUCCEEDED) {
+                System.out.printf("%s -> %s (%d ms)%n", result.getFile(), result.getOutput(),
+                        result.getNanos() / 1_000_000);
+            } else {
+                System.err.println(result);
+            }
+        }
+        System.err.println(summary);
+        return (summary.count(BatchProcessor.Status.SUCCEEDED) == files.size()) ? (EXIT_OK) : (EXIT_FAILURE);
+    }
+
+    /**
+     * files, and the regular files directly inside directories
+     */
+    private static List<File> inputFiles(@NonNull final List<String> arguments) throws UsageException {
+        final List<File> files = new ArrayList<>();
+        for (final String arg : arguments) {
+            final File f = new File(arg);
+            if (f.isDirectory()) files.addAll(BatchProcessor.listFiles(f));
+            else if (f.isFile()) files.add(f);
+            else throw new UsageException("no such file: " + arg);
+        }
+        return files;
+    }
+
+    private int threads() throws UsageException {
+        final int threads;
+        try {
+            threads = Integer.parseInt(options.getOrDefault("--threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+        } catch (NumberFormatException e) {
+            throw new UsageException("--threads: number expected");
+        }
+        if (threads < 1) throw new UsageException("--threads: number expected");
+        return threads;
+    }
+}
@@ -0,0 +1,187 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.algorithms.Progress;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * encrypts or decrypts many files on a bounded worker pool (one thread per core);
+ * when the queue is full the submitting thread runs the task itself (backpressure)
+ */
+public class BatchProcessor {
+    private static final int QUEUE_SIZE_PER_THREAD = 2;
+
+    public enum Status {
+        SUCCEEDED, FAILED, SKIPPED
+    }
+
+    public static class Result {
+        @Getter private final File file;
+        @Getter private final File output;
+        @Getter private final Status status;
+        @Getter private final Exception exception;
+        @Getter private final long nanos;
+
+        private Result(File file, File output, Status status, Exception exception, long nanos) {
+            this.file = file;
+            this.output = output;
+            this.status = status;
+            this.exception = exception;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s%s", status, file.getName(),
+                    (status == Status.FAILED) ? (": " + exception.getMessage()) : (""));
+        }
+    }
+
+    public static class Summary {
+        @Getter private final List<Result> results;
+
+        private Summary(List<Result> results) {
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        public long count(@NonNull final Status status) {
+            return results.stream().filter(r -> r.status == status).count();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Processed %d file(s): %d succeeded, %d failed, %d skipped.",
+                    results.size(), count(Status.SUCCEEDED), count(Status.FAILED), count(Status.SKIPPED));
+        }
+    }
+
+    private final Database database;
+    private final Mode mode;
+    private final List<Card> receiversCards;
+    private final OutputPolicy outputPolicy;
+    private final boolean failFast;
+    private final int threads;
+
+    /**
+     * @param receiversCards ignored when decrypting (the owner's key pair is used);
+     *                       checked by Message.checkReceivers() before any file is submitted
+     */
+    public BatchProcessor(@NonNull final Database database,
+                          @NonNull final Mode mode,
+                          @NonNull final List<Card> receiversCards,
+                          @NonNull final OutputPolicy outputPolicy,
+                          final boolean failFast) {
+        this(database, mode, receiversCards, outputPolicy, failFast,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchProcessor(@NonNull final Database database,
+                          @NonNull final Mode mode,
+                          @NonNull final List<Card> receiversCards,
+                          @NonNull final OutputPolicy outputPolicy,
+                          final boolean failFast,
+                          final int threads) {
+        Message.checkReceivers(mode, receiversCards);
+        if (threads < 1) throw new IllegalArgumentException("threads < 1");
+        this.database = database;
+        this.mode = mode;
+        this.receiversCards = new ArrayList<>(receiversCards);
+        this.outputPolicy = outputPolicy;
+        this.failFast = failFast;
+        this.threads = threads;
+    }
+
+    /**
+     * regular files directly inside the directory, sorted by name
+     */
+    public static List<File> listFiles(@NonNull final File dir) {
+        final File[] files = dir.listFiles(File::isFile);
+        if (files == null) return Collections.emptyList();
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    public Summary process(@NonNull final List<File> files) throws InterruptedException {
+        return process(files, Progress.NONE);
+    }
+
+    /**
+     * progress is shared by the worker threads; once it is cancelled, the file being processed
+     * and the files not started yet are SKIPPED
+     */
+    public Summary process(@NonNull final List<File> files, @NonNull final Progress progress)
+            throws InterruptedException {
+        final Card ownerCard = (mode == Mode.DECRYPTION) ? (ownerCard()) : (null);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final AtomicInteger threadNo = new AtomicInteger(0);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD),
+                r -> {
+                    final Thread t = new Thread(r, "batch-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        final List<Future<Result>> futures = new ArrayList<>(files.size());
+        try {
+            for (final File file : files) {
+                futures.add(executor.submit(() -> processOne(file, ownerCard, failed, progress)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final List<Result> results = new ArrayList<>(files.size());
+        for (final Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return new Summary(results);
+    }
+
+    private Result processOne(@NonNull final File file, final Card ownerCard, @NonNull final AtomicBoolean failed,
+                              @NonNull final Progress progress) {
+        if ((failFast && failed.get()) || progress.isCancelled()) {
+            return new Result(file, null, Status.SKIPPED, null, 0);
+        }
+        final long start = System.nanoTime();
+        try {
+            final File output;
+            if (mode == Mode.DECRYPTION) {
+                output = Message.recreateFile(ownerCard, database.getOwnerPrivKey(), file, outputPolicy, progress);
+            } else {
+                final Message msg = new Message(receiversCards, database.getOwnerId(), file);
+                output = (mode == Mode.ENCRYPTION_JSON)
+                        ? (msg.encryptAndSaveToJson(outputPolicy, progress))
+                        : (msg.encryptAndSaveToContainer(outputPolicy, progress));
+            }
+            return new Result(file, output, Status.SUCCEEDED, null, System.nanoTime() - start);
+        } catch (CancellationException e) {
+            return new Result(file, null, Status.SKIPPED, null, System.nanoTime() - start);
+        } catch (Exception e) {
+            failed.set(true);
+            return new Result(file, null, Status.FAILED, e, System.nanoTime() - start);
+        }
+    }
+
+    private Card ownerCard() {
+        final Card card = database.getCard(database.getOwnerId());
+        if (card == null) throw new IllegalStateException("owner's card not found");
+        return card;
+    }
+}
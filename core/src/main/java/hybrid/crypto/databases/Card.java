@@ -0,0 +1,234 @@
+package hybrid.crypto.databases;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hybrid.crypto.algorithms.Base64Conversion;
+import hybrid.crypto.keys.PublicRsaKey;
+import hybrid.crypto.keys.Type;
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import hybrid.crypto.metrics.Trace;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+
+public class Card implements Serializable {
+    private static final long serialVersionUID = 11L;
+
+    private static final String TIME_KEY = "time";
+    private static final String ID_KEY = "id";
+    private static final String NAME_KEY = "name";
+    private static final String PUB_KEY_KEY = "pub";
+    private static final String CARD_KEY = "card";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int MAX_NAME_BYTES = 1024;
+    private static final int MAX_KEY_BYTES = 8 * 1024;
+
+    /* classes of the Java-serialized "id" and "pub" fields of older card files */
+    static final String[] LEGACY_ID_CLASSES = {
+            Identifier.class.getName(), "[B"
+    };
+    private static final String[] LEGACY_KEY_CLASSES = {
+            "hybrid.crypto.keys.PublicRsaKey", "hybrid.crypto.keys.AsymmetricKeys", "hybrid.crypto.keys.Keys",
+            "java.security.KeyRep", "java.security.KeyRep$Type", "java.lang.Enum", "[B"
+    };
+
+    /* thread-safe once configured; shared by single-card files and bundles */
+    static final ObjectMapper MAPPER = new ObjectMapper(new JsonFactory());
+
+    @Getter private final long creationTime;
+    @Getter private final String personName;
+    @Getter private final Identifier personId;
+    @Getter private final PublicRsaKey personPubKey;
+
+    /**
+     * fromJsonFile()
+     */
+    public Card(long creationTime,
+                @NonNull String personName,
+                @NonNull Identifier personId,
+                @NonNull PublicRsaKey personPubKey) {
+
+        this.creationTime = creationTime;
+        this.personName = personName;
+        this.personId = personId;
+        this.personPubKey = personPubKey;
+    }
+
+    public Card(@NonNull Identifier personId, @NonNull String personName,
+                @NonNull PublicRsaKey personPubKey) {
+        this.creationTime = System.currentTimeMillis();
+        this.personId = personId;
+        this.personName = personName;
+        this.personPubKey = personPubKey;
+    }
+
+    public void toJsonFile(@NonNull final File output) throws Exception {
+        final long start = Metrics.start();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            writeJson(generator);
+        } catch (Exception e) {
+            Metrics.failed(Stage.JSON_ENCODE, start);
+            throw e;
+        }
+        Metrics.record(Stage.JSON_ENCODE, start, output.length());
+    }
+
+    /**
+     * {"name": ..., "card": base64(toBytes())}; the name is only there for people reading the file
+     */
+    void writeJson(@NonNull final JsonGenerator generator) throws Exception {
+        generator.writeStartObject();
+        generator.writeStringField(NAME_KEY, personName);
+        generator.writeStringField(CARD_KEY, Base64.getEncoder().encodeToString(toBytes()));
+        generator.writeEndObject();
+    }
+
+    public static Card fromJsonFile(@NonNull final File file) throws Exception {
+        final Trace trace = Trace.begin(Trace.Kind.CARD_READ);
+        final long start = Metrics.start();
+        try {
+            final Card card = fromJson(MAPPER.readTree(file));
+            Metrics.record(Stage.JSON_DECODE, start, file.length());
+            trace.end(file.length(), card.getPersonPubKey().getType(), null);
+            return card;
+        } catch (Exception e) {
+            Metrics.failed(Stage.JSON_DECODE, start);
+            trace.end(file.length(), null, e);
+            throw e;
+        }
+    }
+
+    static Card fromJson(@NonNull final JsonNode rootNode) throws Exception {
+        final JsonNode card = rootNode.get(CARD_KEY);
+        if (card != null) {
+            if (!card.isTextual()) throw new IOException("card corrupted");
+            return fromBytes(Base64.getDecoder().decode(card.asText()));
+        }
+        return fromLegacyJson(rootNode);
+    }
+
+    /**
+     * "name", "time", and the Java-serialized "id" and "pub";
+     * deserialized with only the classes those fields may contain
+     */
+    private static Card fromLegacyJson(@NonNull final JsonNode rootNode) throws Exception {
+        long creationTime = -1;
+        String personName = "?";
+        Identifier personId = null;
+        PublicRsaKey personPubKey = null;
+
+        Iterator<Map.Entry<String,JsonNode>> fieldsIterator = rootNode.fields();
+        while (fieldsIterator.hasNext()) {
+            Map.Entry<String,JsonNode> field = fieldsIterator.next();
+            final String str = field.getValue().toString().replaceAll("\"","");
+            switch (field.getKey()) {
+                case TIME_KEY:
+                    creationTime = Long.parseLong(str);
+                    break;
+                case ID_KEY:
+                    personId = Base64Conversion.base64StrToObj(str, Identifier.class, LEGACY_ID_CLASSES);
+                    break;
+                case NAME_KEY:
+                    personName = str;
+                    break;
+                case PUB_KEY_KEY:
+                    personPubKey = Base64Conversion.base64StrToObj(str, PublicRsaKey.class, LEGACY_KEY_CLASSES);
+                    if (!personPubKey.getType().isAsymmetric()) throw new IOException("card corrupted");
+                    break;
+            }
+        }
+        return new Card(creationTime,personName,personId,personPubKey);
+    }
+
+    /**
+     * compact encoding: format version, 16-byte ID, varint creation time, varint length + UTF-8 name,
+     * key type, varint length + X.509 SubjectPublicKeyInfo of the public key
+     */
+    public byte[] toBytes() {
+        final byte[] name = personName.getBytes(StandardCharsets.UTF_8);
+        final byte[] key = personPubKey.getEncoded();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(32 + name.length + key.length);
+        out.write(FORMAT_VERSION);
+        out.write(personId.getIdBytes(), 0, Identifier.ID_BYTE_ARR_LENGTH);
+        writeVarLong(out, creationTime);
+        writeVarLong(out, name.length);
+        out.write(name, 0, name.length);
+        out.write(personPubKey.getType().getTypeId());
+        writeVarLong(out, key.length);
+        out.write(key, 0, key.length);
+        return out.toByteArray();
+    }
+
+    public static Card fromBytes(@NonNull final byte[] bytes) throws Exception {
+        final ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        if (in.read() != FORMAT_VERSION) throw new IOException("unsupported card format");
+        final Identifier personId = new Identifier(readBytes(in, Identifier.ID_BYTE_ARR_LENGTH));
+        final long creationTime = readVarLong(in);
+        final String personName = new String(readBytes(in, readLength(in, MAX_NAME_BYTES)), StandardCharsets.UTF_8);
+        final int typeId = in.read();
+        if (typeId == -1) throw new EOFException("card corrupted");
+        final Type type = Type.typeIdByteToEnum((byte) typeId);
+        final byte[] key = readBytes(in, readLength(in, MAX_KEY_BYTES));
+        if (in.available() != 0) throw new IOException("card corrupted");
+        return new Card(creationTime, personName, personId,
+                PublicRsaKey.fromEncoded(type, byteArrToHexStr(personId.getIdBytes()), key));
+    }
+
+    /**
+     * unsigned LEB128
+     */
+    private static void writeVarLong(final ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(final InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.read();
+            if (b == -1) throw new EOFException("card corrupted");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("card corrupted");
+    }
+
+    private static int readLength(final InputStream in, final int max) throws IOException {
+        final long length = readVarLong(in);
+        if (length < 0 || length > max) throw new IOException("card corrupted");
+        return (int) length;
+    }
+
+    private static byte[] readBytes(final InputStream in, final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        int off = 0;
+        while (off < length) {
+            final int n = in.read(bytes, off, length - off);
+            if (n == -1) throw new EOFException("card corrupted");
+            off += n;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s)", personName,
+                byteArrToHexStr(personId.getIdBytes()));
+    }
+}
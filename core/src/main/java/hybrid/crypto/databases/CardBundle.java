@@ -0,0 +1,144 @@
+package hybrid.crypto.databases;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+
+/**
+ * many cards in one JSON file: {"cards": [card, card, ...]}, each card as written by Card.toJsonFile();
+ * bulk import parses single-card files and bundles in parallel, the caller merges them with
+ * Database.addCards() and saves the profile once
+ */
+public final class CardBundle {
+    private static final String CARDS_KEY = "cards";
+
+    public static class Import {
+        @Getter private final List<Card> cards;
+        /**
+         * files that could not be read, with the first error of each
+         */
+        @Getter private final Map<File, Exception> failures;
+
+        private Import(List<Card> cards, Map<File, Exception> failures) {
+            this.cards = Collections.unmodifiableList(cards);
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Read %d card(s), %d file(s) failed.", cards.size(), failures.size());
+        }
+    }
+
+    private CardBundle() {}
+
+    /**
+     * single-card files and bundles, in any mix; the cards keep the order of the files
+     */
+    public static Import read(@NonNull final List<File> files, final int threads) throws InterruptedException {
+        if (threads < 1) throw new IllegalArgumentException("threads < 1");
+        final Map<File, Exception> failures = new LinkedHashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<JsonNode>> trees = new ArrayList<>(files.size());
+            for (final File file : files) {
+                trees.add(executor.submit(() -> Card.MAPPER.readTree(file)));
+            }
+            final List<File> origins = new ArrayList<>();
+            final List<Future<Card>> parsed = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                final File file = files.get(i);
+                try {
+                    for (final JsonNode node : cardNodes(get(trees.get(i)))) {
+                        origins.add(file);
+                        parsed.add(executor.submit(() -> Card.fromJson(node)));
+                    }
+                } catch (Exception e) {
+                    failures.put(file, e);
+                }
+            }
+            final List<Card> cards = new ArrayList<>(parsed.size());
+            for (int i = 0; i < parsed.size(); i++) {
+                try {
+                    cards.add(get(parsed.get(i)));
+                } catch (Exception e) {
+                    failures.putIfAbsent(origins.get(i), e);
+                }
+            }
+            return new Import(cards, failures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T get(@NonNull final Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? ((Exception) e.getCause()) : (e);
+        }
+    }
+
+    private static List<JsonNode> cardNodes(@NonNull final JsonNode root) throws IOException {
+        final JsonNode array = root.get(CARDS_KEY);
+        if (array == null) return Collections.singletonList(root);
+        if (!array.isArray()) throw new IOException("card bundle expected");
+        final List<JsonNode> nodes = new ArrayList<>(array.size());
+        array.forEach(nodes::add);
+        return nodes;
+    }
+
+    public static void write(@NonNull final File output, @NonNull final Collection<Card> cards) throws Exception {
+        try (JsonGenerator generator = Card.MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(CARDS_KEY);
+            for (final Card card : cards) {
+                card.writeJson(generator);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * one "card ID".json per card, written in parallel; returns the files
+     */
+    public static List<File> writeEach(@NonNull final File dir,
+                                       @NonNull final Collection<Card> cards,
+                                       final int threads) throws Exception {
+        if (threads < 1) throw new IllegalArgumentException("threads < 1");
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<File>> written = new ArrayList<>(cards.size());
+            for (final Card card : cards) {
+                written.add(executor.submit(() -> {
+                    final File output = Paths.get(dir.getAbsolutePath(),
+                            byteArrToHexStr(card.getPersonId().getIdBytes()) + ".json").toFile();
+                    card.toJsonFile(output);
+                    return output;
+                }));
+            }
+            final List<File> files = new ArrayList<>(written.size());
+            for (final Future<File> f : written) {
+                files.add(get(f));
+            }
+            return files;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
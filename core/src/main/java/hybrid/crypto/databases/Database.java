@@ -0,0 +1,503 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.*;
+import hybrid.crypto.algorithms.Notifications;
+import hybrid.crypto.algorithms.Notifier;
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import hybrid.crypto.metrics.Trace;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.SerializationUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static hybrid.crypto.algorithms.Utils.*;
+import static hybrid.crypto.keys.Type.AES_1;
+import static hybrid.crypto.keys.Type.AES_2;
+
+public class Database implements Serializable {
+    private static final long serialVersionUID = 11L;
+    private static final int SALT_SIZE = 16;
+    public static final String EXTENSION = ".profile";
+    /**
+     * saveChanges() rewrites the profile as a single snapshot once the log has this many records
+     */
+    private static final int COMPACT_AFTER_RECORDS = 64;
+
+    public static class MergeSummary {
+        @Getter private final int added;
+        @Getter private final int updated;
+        @Getter private final int unchanged;
+
+        private MergeSummary(int added, int updated, int unchanged) {
+            this.added = added;
+            this.updated = updated;
+            this.unchanged = unchanged;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d card(s): %d added, %d updated, %d already up to date.",
+                    added + updated + unchanged, added, updated, unchanged);
+        }
+    }
+
+    @Setter
+    @Getter
+    private String databaseName;
+    private final Identifier id;
+    private final long creationTime;
+
+    @Getter private final Identifier ownerId;
+    private final String ownerName;
+    private PublicRsaKey ownerPubKey;
+    @Getter private PrivateRsaKey ownerPrivKey;
+
+    /**
+     * serialized form of the cards, in display order (owner first); written from cardsById
+     */
+    private List<Card> cardList;
+
+    /* card indexes, rebuilt from cardList when a snapshot is loaded */
+    private transient Map<Identifier, Card> cardsById;
+    private transient Map<String, List<Card>> cardsByName;
+    private transient NavigableMap<String, Card> cardsByHexId;
+
+    /* state of the .profile log, not part of the snapshot */
+    private transient List<ProfileLog.Record> pendingRecords;
+    private transient int recordsInLog;
+    private transient long logLength;
+    private transient boolean snapshotRequired;
+
+    /* session key material: the profile's data key and the header storing it wrapped; never the password */
+    private transient AesKey dataKey;
+    private transient ProfileLog.Header header;
+
+    /**
+     * the owner's keys are RSA-4096, RSA_1 or RSA_2
+     */
+    public Database(@NonNull final String databaseName,
+                    @NonNull final String ownerName) throws Exception {
+        this(databaseName, ownerName, null);
+    }
+
+    /**
+     * keyType: the owner's key type, any asymmetric Type; null for RSA_1 or RSA_2
+     */
+    public Database(@NonNull final String databaseName,
+                    @NonNull final String ownerName,
+                    final Type keyType) throws Exception {
+        if (keyType != null && !keyType.isAsymmetric()) {
+            throw new IllegalArgumentException("asymmetric key type expected");
+        }
+        this.creationTime = System.currentTimeMillis();
+        this.cardList = new ArrayList<>();
+        initIndexes();
+        this.databaseName = databaseName;
+        this.ownerName = ownerName;
+        this.id = new Identifier();
+        this.ownerId = new Identifier();
+        final MyKeyPair myKeyPair = this.genKeyPair(keyType);
+        this.ownerPubKey = (PublicRsaKey) myKeyPair.publicRsaKey;
+        this.ownerPrivKey = (PrivateRsaKey) myKeyPair.privateRsaKey;
+        /* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+        final Card ownerCard = new Card(ownerId, ownerName, ownerPubKey);
+        index(ownerCard);
+    }
+
+    /**
+     * EC_1 owners get a new EC_1 pair, RSA owners RSA_1 or RSA_2
+     */
+    public synchronized void genNewKeyPairAndReplaceOldKeys() throws Exception {
+        final Type keyType = (ownerPubKey.getType() == Type.EC_1) ? (Type.EC_1) : (null);
+        this.ownerPubKey = null;
+        this.ownerPrivKey = null;
+        final MyKeyPair myKeyPair = this.genKeyPair(keyType);
+        this.ownerPubKey = (PublicRsaKey) myKeyPair.publicRsaKey;
+        this.ownerPrivKey = (PrivateRsaKey) myKeyPair.privateRsaKey;
+        unindex(ownerId);
+        final Collection<Card> others = new ArrayList<>(cardsById.values());
+        initIndexes();
+        index(new Card(this.ownerId, this.ownerName, this.ownerPubKey));
+        others.forEach(this::index);
+        this.snapshotRequired = true;
+        Notifications.notify("New keys have been generated. " +
+                        "All your shared cards are useless now.",
+                Notifier.Level.INFORMATION);
+    }
+
+    /**
+     * instant when KeyPairPool is running and has a pair ready; keyType null: RSA_1 or RSA_2
+     */
+    private MyKeyPair genKeyPair(final Type keyType) throws Exception {
+        return KeyPairPool.take((keyType != null) ? (keyType)
+                : (secureRandom.nextBoolean()) ? (Type.RSA_1) : (Type.RSA_2));
+    }
+
+    /**
+     * package-private for the benchmarks module
+     */
+    static AesKey pswdToKey(@NonNull final String password, @NonNull final byte[] salt) throws Exception {
+        return pswdToKey(password, salt, Kdf.LEGACY, AES_1);
+    }
+
+    /**
+     * AES_1: legacy single-blob profiles, AES_2: profile log records
+     */
+    static AesKey pswdToKey(@NonNull final String password,
+                            @NonNull final byte[] salt,
+                            @NonNull final Kdf kdf,
+                            @NonNull final Type type) throws Exception {
+        final long start = Metrics.start();
+        final byte[] keyBytes;
+        try {
+            keyBytes = kdf.derive(password, salt, type.getKeySize() / 8);
+            Metrics.record(Stage.KDF, start, keyBytes.length);
+        } catch (Exception e) {
+            Metrics.failed(Stage.KDF, start);
+            throw e;
+        }
+        try {
+            return new AesKey(new SecretKeySpec(keyBytes, "AES"), type, randAlphabeticStr(SALT_SIZE));
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    public static File getDatabaseDir(@NonNull final String databaseName) {
+        return Paths.get(USER_DATA_DIR.toFile().getAbsolutePath(), databaseName).toFile();
+    }
+
+    public static File getDatabaseFile(@NonNull final String databaseName) {
+        final File dir = getDatabaseDir(databaseName);
+        if(!dir.exists()) getDatabaseDir(databaseName).mkdir();
+        return Paths.get(dir.getAbsolutePath(), (databaseName + EXTENSION)).toFile();
+    }
+
+    /**
+     * writes the whole profile under a new salt and a new random data key (creating a profile, changing the password)
+     */
+    public void encryptAndSaveDatabase(@NonNull final String password) throws Exception {
+        encryptAndSaveDatabase(password, Kdf.defaults());
+    }
+
+    /**
+     * as above, with the password-based key derivation recorded in the profile header
+     */
+    public synchronized void encryptAndSaveDatabase(@NonNull final String password,
+                                                    @NonNull final Kdf kdf) throws Exception {
+        final Trace trace = Trace.begin(Trace.Kind.PROFILE_SAVE);
+        try {
+            final byte[] salt = new byte[SALT_SIZE];
+            secureRandom.nextBytes(salt);
+            wrapNewDataKey(pswdToKey(password, salt, kdf, AES_2), salt, kdf);
+            writeSnapshot();
+            trace.end(logLength, AES_2, null);
+        } catch (Exception e) {
+            trace.end(0, AES_2, e);
+            throw e;
+        }
+    }
+
+    /**
+     * null when locked
+     */
+    public synchronized Kdf getKdf() {
+        return (header != null) ? (header.getKdf()) : (null);
+    }
+
+    /**
+     * the data key is random; only its wrapped form, under the password-derived key, is stored
+     */
+    private void wrapNewDataKey(@NonNull final AesKey masterKey,
+                                @NonNull final byte[] salt,
+                                @NonNull final Kdf kdf) throws Exception {
+        final byte[] keyBytes = new byte[AES_2.getKeySize() / 8];
+        secureRandom.nextBytes(keyBytes);
+        try {
+            this.header = new ProfileLog.Header(salt, kdf, masterKey.encrypt(keyBytes));
+            this.dataKey = dataKey(keyBytes);
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+        }
+    }
+
+    private static AesKey dataKey(@NonNull final byte[] keyBytes) {
+        return new AesKey(new SecretKeySpec(keyBytes, "AES"), AES_2, randAlphabeticStr(SALT_SIZE));
+    }
+
+    private void writeSnapshot() throws Exception {
+        this.logLength = ProfileLog.write(getDatabaseFile(this.databaseName), header, dataKey,
+                SerializationUtils.serialize(this));
+        this.recordsInLog = 1;
+        this.snapshotRequired = false;
+        pendingRecords().clear();
+    }
+
+    /**
+     * appends the card changes made since the last save, with the data key unlocked when the profile was opened
+     * (no key derivation); rewrites the whole profile after a key change, for profiles in an older format
+     * and when the log is due for compaction
+     */
+    public synchronized void saveChanges() throws Exception {
+        if (dataKey == null) throw new IllegalStateException("profile is locked");
+        final File file = getDatabaseFile(this.databaseName);
+        if (snapshotRequired || recordsInLog == 0 || !file.exists()
+                || recordsInLog + pendingRecords().size() > COMPACT_AFTER_RECORDS) {
+            writeSnapshot();
+            return;
+        }
+        if (pendingRecords().isEmpty()) return;
+        this.logLength = ProfileLog.append(file, logLength, dataKey, recordsInLog, pendingRecords());
+        this.recordsInLog += pendingRecords().size();
+        pendingRecords().clear();
+    }
+
+    /**
+     * forgets the session key; the profile has to be opened again to be saved
+     */
+    public synchronized void lock() {
+        this.dataKey = null;
+        this.header = null;
+    }
+
+    private List<ProfileLog.Record> pendingRecords() {
+        if (pendingRecords == null) pendingRecords = new ArrayList<>();
+        return pendingRecords;
+    }
+
+    public static Database decryptDatabaseAndLoad(@NonNull final File file,
+                                                  @NonNull final String password) throws Exception {
+        final Trace trace = Trace.begin(Trace.Kind.PROFILE_LOAD);
+        Type type = null;
+        try {
+            type = ProfileLog.isLog(file) ? (AES_2) : (AES_1);
+            final Database database = (type == AES_2)
+                    ? (loadLog(file, password))
+                    : (loadLegacy(file, password));
+            database.setDatabaseName(FilenameUtils.getBaseName(file.getAbsolutePath()));
+            trace.end(file.length(), type, null);
+            return database;
+        } catch (Exception e) {
+            trace.end(file.length(), type, e);
+            throw e;
+        }
+    }
+
+    private static Database loadLog(@NonNull final File file, @NonNull final String password) throws Exception {
+        final ProfileLog.Header header = ProfileLog.readHeader(file);
+        final AesKey masterKey = pswdToKey(password, header.getSalt(), header.getKdf(), AES_2);
+        final AesKey recordKey;
+        if (header.getVersion() == ProfileLog.VERSION_PASSWORD_KEY) {
+            recordKey = masterKey;
+        } else {
+            final byte[] keyBytes = masterKey.decrypt(header.getWrappedKey());
+            try {
+                recordKey = dataKey(keyBytes);
+            } finally {
+                Arrays.fill(keyBytes, (byte) 0);
+            }
+        }
+        final ProfileLog.Contents contents = ProfileLog.read(file, recordKey);
+        final List<ProfileLog.Record> records = contents.getRecords();
+        final Database database = SerializationUtils.deserialize(records.get(0).getPayload());
+        for (final ProfileLog.Record record : records.subList(1, records.size())) {
+            switch (record.getKind()) {
+                case ProfileLog.PUT_CARD_COMPACT:
+                    database.putCard(Card.fromBytes(record.getPayload()));
+                    break;
+                case ProfileLog.REMOVE_CARD: {
+                    database.unindex(new Identifier(record.getPayload()));
+                    break;
+                }
+                default:
+                    throw new Exception("profile corrupted");
+            }
+        }
+        database.recordsInLog = records.size();
+        database.logLength = contents.getValidLength();
+        if (header.getVersion() == ProfileLog.VERSION_PASSWORD_KEY) {
+            database.wrapNewDataKey(masterKey, header.getSalt(), header.getKdf());
+            database.snapshotRequired = true;
+        } else {
+            database.header = header;
+            database.dataKey = recordKey;
+        }
+        return database;
+    }
+
+    /**
+     * salt + AES_1(serialized Database); rewritten in the log format on the next save, under a master key
+     * from Kdf.defaults() and a new salt, so the legacy CBC key is never reused for the log
+     */
+    private static Database loadLegacy(@NonNull final File file, @NonNull final String password) throws Exception {
+        final byte[] salt = new byte[SALT_SIZE];
+        final byte[] encAndSalt = ProfileLog.readFile(file);
+        if (encAndSalt.length < salt.length) throw new Exception("profile corrupted");
+        final byte[] enc = new byte[encAndSalt.length - salt.length];
+        System.arraycopy(encAndSalt, 0, salt, 0, salt.length);
+        System.arraycopy(encAndSalt, salt.length + 0, enc, 0, enc.length);
+        final AesKey aesKey = pswdToKey(password, salt);
+        final byte[] dec = aesKey.decrypt(enc);
+        final Database database = SerializationUtils.deserialize(dec);
+        final byte[] newSalt = new byte[SALT_SIZE];
+        secureRandom.nextBytes(newSalt);
+        final Kdf kdf = Kdf.defaults();
+        database.wrapNewDataKey(pswdToKey(password, newSalt, kdf, AES_2), newSalt, kdf);
+        database.snapshotRequired = true;
+        return database;
+    }
+
+    public synchronized void removeCard(@NonNull final Card card) {
+        if (unindex(card.getPersonId()) != null) {
+            pendingRecords().add(new ProfileLog.Record(ProfileLog.REMOVE_CARD, card.getPersonId().getIdBytes()));
+        }
+    }
+
+    /**
+     * replaces the card with the same ID or adds it, without notifications
+     */
+    private void putCard(@NonNull final Card card) {
+        index(card);
+    }
+
+    /**
+     * merges many cards the way addCard() does (a card replaces the one with the same ID if it is newer),
+     * with a single notification; call saveChanges() once afterwards
+     */
+    public synchronized MergeSummary addCards(@NonNull final Collection<Card> cards) {
+        int added = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (final Card card : cards) {
+            final Card equalCard = cardsById.get(card.getPersonId());
+            if (equalCard == null) {
+                added++;
+            } else if (card.getCreationTime() > equalCard.getCreationTime()) {
+                updated++;
+            } else {
+                unchanged++;
+                continue;
+            }
+            index(card);
+            pendingRecords().add(new ProfileLog.Record(ProfileLog.PUT_CARD_COMPACT, card.toBytes()));
+        }
+        final MergeSummary summary = new MergeSummary(added, updated, unchanged);
+        Notifications.notify("Imported " + summary, Notifier.Level.INFORMATION);
+        return summary;
+    }
+
+    public synchronized void addCard(@NonNull final Card card) {
+        final Card equalCard = cardsById.get(card.getPersonId());
+
+        if (equalCard != null) {
+            if (card.getCreationTime() > equalCard.getCreationTime()) {
+                // update card
+                index(card);
+                pendingRecords().add(new ProfileLog.Record(ProfileLog.PUT_CARD_COMPACT, card.toBytes()));
+                Notifications.notify(
+                        "An existing card has been updated.",
+                        Notifier.Level.INFORMATION
+                );
+            } else {
+                Notifications.notify(
+                        "The selected card already exists in the database.",
+                        Notifier.Level.INFORMATION);
+            }
+        } else {
+            // add new card
+            index(card);
+            pendingRecords().add(new ProfileLog.Record(ProfileLog.PUT_CARD_COMPACT, card.toBytes()));
+            Notifications.notify(
+                    "The selected card has been added to the database.",
+                    Notifier.Level.INFORMATION
+            );
+        }
+    }
+
+    /**
+     * a copy, in display order (owner first)
+     */
+    public synchronized List<Card> getCardList() {
+        return new ArrayList<>(cardsById.values());
+    }
+
+    public synchronized int getCardCount() {
+        return cardsById.size();
+    }
+
+    /**
+     * null if there is no such card
+     */
+    public synchronized Card getCard(@NonNull final Identifier personId) {
+        return cardsById.get(personId);
+    }
+
+    public synchronized List<Card> findCardsByName(@NonNull final String personName) {
+        return new ArrayList<>(cardsByName.getOrDefault(personName, Collections.emptyList()));
+    }
+
+    /**
+     * cards whose hex ID starts with the given (case-insensitive) prefix
+     */
+    public synchronized List<Card> findCardsByIdPrefix(@NonNull final String hexPrefix) {
+        final String from = hexPrefix.toLowerCase();
+        return new ArrayList<>(cardsByHexId.subMap(from, true, from + Character.MAX_VALUE, false).values());
+    }
+
+    private void initIndexes() {
+        this.cardsById = new LinkedHashMap<>();
+        this.cardsByName = new HashMap<>();
+        this.cardsByHexId = new TreeMap<>();
+    }
+
+    /**
+     * adds the card or replaces the one with the same ID, keeping its position
+     */
+    private void index(@NonNull final Card card) {
+        final Card old = cardsById.put(card.getPersonId(), card);
+        if (old != null) removeByName(old);
+        cardsByName.computeIfAbsent(card.getPersonName(), k -> new ArrayList<>(1)).add(card);
+        cardsByHexId.put(byteArrToHexStr(card.getPersonId().getIdBytes()), card);
+    }
+
+    private Card unindex(@NonNull final Identifier personId) {
+        final Card old = cardsById.remove(personId);
+        if (old != null) {
+            removeByName(old);
+            cardsByHexId.remove(byteArrToHexStr(personId.getIdBytes()));
+        }
+        return old;
+    }
+
+    private void removeByName(@NonNull final Card card) {
+        final List<Card> sameName = cardsByName.get(card.getPersonName());
+        if (sameName == null) return;
+        sameName.removeIf(c -> c == card);
+        if (sameName.isEmpty()) cardsByName.remove(card.getPersonName());
+    }
+
+    private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+        this.cardList = new ArrayList<>(cardsById.values());
+        out.defaultWriteObject();
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initIndexes();
+        for (final Card card : cardList) {
+            index(card);
+        }
+    }
+}
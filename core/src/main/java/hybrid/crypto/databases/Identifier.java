@@ -0,0 +1,45 @@
+package hybrid.crypto.databases;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static hybrid.crypto.algorithms.Utils.secureRandom;
+
+public class Identifier implements Serializable {
+    private static final long serialVersionUID = 11L;
+    final static int ID_BYTE_ARR_LENGTH = 16;
+
+    @Getter private final byte[] idBytes = new byte[ID_BYTE_ARR_LENGTH];
+
+    public Identifier() {
+        secureRandom.nextBytes(this.idBytes);
+    }
+
+    Identifier(@NonNull final byte[] idBytes) {
+        if (idBytes.length != ID_BYTE_ARR_LENGTH) throw new IllegalArgumentException();
+        System.arraycopy(idBytes, 0, this.idBytes, 0, ID_BYTE_ARR_LENGTH);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (idBytes == null || idBytes.length != ID_BYTE_ARR_LENGTH) throw new InvalidObjectException("identifier");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Identifier)) return false;
+        return Arrays.equals(this.idBytes, ((Identifier) o).idBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.idBytes);
+    }
+}
@@ -0,0 +1,530 @@
+package hybrid.crypto.databases;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import hybrid.crypto.algorithms.Base64Conversion;
+import hybrid.crypto.algorithms.Notifications;
+import hybrid.crypto.algorithms.Notifier;
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.algorithms.Progress;
+import hybrid.crypto.algorithms.RestrictedObjectInputStream;
+import hybrid.crypto.keys.Keys;
+import hybrid.crypto.keys.PrivateRsaKey;
+import hybrid.crypto.keys.SymmetricKeys;
+import hybrid.crypto.keys.Type;
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import hybrid.crypto.metrics.Trace;
+import lombok.NonNull;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static hybrid.crypto.algorithms.Utils.*;
+import static hybrid.crypto.algorithms.Validation.isEmpty;
+import static hybrid.crypto.keys.SymmetricKeys.generateKey;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
+import static org.apache.commons.io.FilenameUtils.getExtension;
+
+public class Message implements Serializable {
+    private static final long serialVersionUID = 11L;
+
+    private final static String SENDER_ID_KEY = "senderID";
+    private final static String RECEIVER_ID_KEY = "receiverID";
+    private final static String ENC_FILE_KEY = "data";
+    private final static String ENC_SYM_KEY = "key";
+    private final static String FILE_NAME_KEY = "fileName";
+
+    public final static String JSON_EXT = "json";
+    public final static String CONTAINER_EXT = "hcm";
+    private final static byte[] CONTAINER_MAGIC = {'H', 'C', 'M'};
+    private final static byte CONTAINER_VERSION_SINGLE = 1;
+    private final static byte CONTAINER_VERSION = 2;
+    /**
+     * the wrapped key carries its type, so messages encrypted with AES_1 still decrypt
+     */
+    private final static Type PAYLOAD_KEY_TYPE = Type.AES_2;
+    /**
+     * the container stores the number of key slots as an unsigned short
+     */
+    public final static int MAX_RECEIVERS = 0xFFFF;
+
+    private final List<Card> receiversCards;
+    private final Identifier senderId;
+    private final File file;
+
+    public Message(@NonNull final Card receiversCard,
+                   @NonNull final Identifier senderId,
+                   @NonNull final File file) throws IOException {
+
+        this(Collections.singletonList(receiversCard), senderId, file);
+    }
+
+    /**
+     * the payload is encrypted once, the AES key is wrapped once per receiver
+     */
+    public Message(@NonNull final List<Card> receiversCards,
+                   @NonNull final Identifier senderId,
+                   @NonNull final File file) throws IOException {
+
+        checkReceivers(Mode.ENCRYPTION, receiversCards);
+        this.receiversCards = new ArrayList<>(receiversCards);
+        this.senderId = senderId;
+        this.file = file;
+    }
+
+    /**
+     * before any work is done: at least one receiver, at most MAX_RECEIVERS (.hcm), exactly one (JSON)
+     */
+    public static void checkReceivers(@NonNull final Mode mode, @NonNull final List<Card> receiversCards) {
+        if (mode == Mode.DECRYPTION) return;
+        if (receiversCards.isEmpty()) throw new IllegalArgumentException("no receivers");
+        if (receiversCards.size() > MAX_RECEIVERS) {
+            throw new IllegalArgumentException("more than " + MAX_RECEIVERS + " receivers");
+        }
+        if (mode == Mode.ENCRYPTION_JSON && receiversCards.size() != 1) {
+            throw new IllegalArgumentException("JSON messages have a single receiver");
+        }
+    }
+
+    /**
+     * wrapped keys of older messages: GZIP(Java-serialized AesKey)
+     */
+    private static final String[] LEGACY_WRAPPED_KEY_CLASSES = {
+            "hybrid.crypto.keys.AesKey", "hybrid.crypto.keys.SymmetricKeys", "hybrid.crypto.keys.Keys", "[B"
+    };
+
+    /**
+     * key.toBytes() encrypted with the receiver's public key (RSA or EC_1); package-private for the benchmarks module
+     */
+    static byte[] wrapKey(SymmetricKeys key, Card receiversCard) throws Exception {
+        final byte[] bytes = key.toBytes();
+        try {
+            return receiversCard.getPersonPubKey().encrypt(bytes);
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
+    private static String prepareKeyToSend(SymmetricKeys key, Card receiversCard) throws Exception {
+        return Base64.getEncoder().encodeToString(wrapKey(key, receiversCard));
+    }
+
+    private static SymmetricKeys recreateKey(@NonNull final String base64Str,
+                                             @NonNull final PrivateRsaKey privateKey) throws Exception {
+        return unwrapKey(Base64.getDecoder().decode(base64Str), privateKey);
+    }
+
+    static SymmetricKeys unwrapKey(@NonNull final byte[] encBytes,
+                                   @NonNull final PrivateRsaKey privateKey) throws Exception {
+        final byte[] decByte = privateKey.decrypt(encBytes);
+        try {
+            if (decByte.length > 2 && (decByte[0] & 0xff) == 0x1f && (decByte[1] & 0xff) == 0x8b) {
+                return unwrapLegacyKey(decByte);
+            }
+            return Keys.fromBytes(decByte, SymmetricKeys.class);
+        } finally {
+            Arrays.fill(decByte, (byte) 0);
+        }
+    }
+
+    private static SymmetricKeys unwrapLegacyKey(@NonNull final byte[] gzipBytes) throws Exception {
+        final byte[] serialized;
+        try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(gzipBytes))) {
+            serialized = IOUtils.toByteArray(gis);
+        }
+        try (ObjectInputStream inputStream = new RestrictedObjectInputStream(
+                new ByteArrayInputStream(serialized), Arrays.asList(LEGACY_WRAPPED_KEY_CLASSES))) {
+            return (SymmetricKeys) inputStream.readObject();
+        }
+    }
+
+    private static void checkReceiver(@NonNull final Identifier receiverID,
+                                      @NonNull final Card card) throws Exception {
+        if (!receiverID.equals(card.getPersonId())) {
+            Notifications.notify(
+                    String.format("The file was encrypted with a public key, which " +
+                                    "doesn't belong to your key pair (%s ≠ %s).",
+                            byteArrToHexStr(receiverID.getIdBytes()),
+                            byteArrToHexStr(card.getPersonId().getIdBytes())),
+                    Notifier.Level.ERROR);
+            throw new Exception("card ID != receiver ID");
+        }
+    }
+
+    private static void noReceiverSlot(@NonNull final Card card) throws Exception {
+        Notifications.notify(
+                String.format("The file was not encrypted for your key pair (%s).",
+                        byteArrToHexStr(card.getPersonId().getIdBytes())),
+                Notifier.Level.ERROR);
+        throw new Exception("no key slot for card ID");
+    }
+
+    /**
+     * binary container (.hcm), written and read in one sequential pass:
+     * magic, version, sender ID, file name, number of key slots,
+     * key slots (receiver ID, wrapped key), ciphertext as written by the key type
+     *
+     * the payload goes between FileChannels through the key's direct buffers, never through heap byte[]
+     */
+    public File encryptAndSaveToContainer(@NonNull final OutputPolicy outputPolicy) throws Exception {
+        return encryptAndSaveToContainer(outputPolicy, Progress.NONE);
+    }
+
+    /**
+     * a failed or cancelled encryption leaves no partial container behind;
+     * the header (and so every key wrap) is built before the output file is reserved
+     */
+    public File encryptAndSaveToContainer(@NonNull final OutputPolicy outputPolicy,
+                                          @NonNull final Progress progress) throws Exception {
+        final Trace trace = Trace.begin(Trace.Kind.MESSAGE_ENCRYPT);
+        final Type receiversKeyType = receiversCards.get(0).getPersonPubKey().getType();
+        try {
+            final File target = encryptToContainer(outputPolicy, progress);
+            trace.end(file.length(), receiversKeyType, null);
+            return target;
+        } catch (Exception e) {
+            trace.end(file.length(), receiversKeyType, e);
+            throw e;
+        }
+    }
+
+    private File encryptToContainer(@NonNull final OutputPolicy outputPolicy,
+                                    @NonNull final Progress progress) throws Exception {
+        final SymmetricKeys aesKey = generateKey(PAYLOAD_KEY_TYPE, randAlphabeticStr(12));
+        if (aesKey == null) throw new NullPointerException("aesKey == null");
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.write(CONTAINER_MAGIC);
+            out.writeByte(CONTAINER_VERSION);
+            out.write(senderId.getIdBytes());
+            out.writeUTF(file.getName());
+            out.writeShort(receiversCards.size());
+            for (final Card receiversCard : receiversCards) {
+                final byte[] wrappedKey = wrapKey(aesKey, receiversCard);
+                out.write(receiversCard.getPersonId().getIdBytes());
+                out.writeShort(wrappedKey.length);
+                out.write(wrappedKey);
+            }
+        }
+        final File target = outputPolicy.resolve(getBaseName(file.getAbsolutePath()), CONTAINER_EXT);
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel out = openForWriting(target)) {
+            out.write(ByteBuffer.wrap(header.toByteArray()));
+            aesKey.encrypt(in, out, progress);
+        } catch (Exception e) {
+            Files.deleteIfExists(target.toPath());
+            throw e;
+        }
+        return target;
+    }
+
+    public static File recreateFileFromContainer(@NonNull final Card card,
+                                                 @NonNull final PrivateRsaKey privateRsaKey,
+                                                 @NonNull final File containerFile,
+                                                 @NonNull final OutputPolicy outputPolicy) throws Exception {
+        return recreateFileFromContainer(card, privateRsaKey, containerFile, outputPolicy, Progress.NONE);
+    }
+
+    public static File recreateFileFromContainer(@NonNull final Card card,
+                                                 @NonNull final PrivateRsaKey privateRsaKey,
+                                                 @NonNull final File containerFile,
+                                                 @NonNull final OutputPolicy outputPolicy,
+                                                 @NonNull final Progress progress) throws Exception {
+        final Trace trace = Trace.begin(Trace.Kind.MESSAGE_DECRYPT);
+        try {
+            final File target = decryptContainer(card, privateRsaKey, containerFile, outputPolicy, progress);
+            trace.end(containerFile.length(), privateRsaKey.getType(), null);
+            return target;
+        } catch (Exception e) {
+            trace.end(containerFile.length(), privateRsaKey.getType(), e);
+            throw e;
+        }
+    }
+
+    private static File decryptContainer(@NonNull final Card card,
+                                         @NonNull final PrivateRsaKey privateRsaKey,
+                                         @NonNull final File containerFile,
+                                         @NonNull final OutputPolicy outputPolicy,
+                                         @NonNull final Progress progress) throws Exception {
+
+        try (FileChannel channel = FileChannel.open(containerFile.toPath(), StandardOpenOption.READ)) {
+            final CountingInputStream headerIn = new CountingInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel)));
+            final DataInputStream in = new DataInputStream(headerIn);
+            final byte[] magic = new byte[CONTAINER_MAGIC.length];
+            in.readFully(magic);
+            final byte version = in.readByte();
+            if (!Arrays.equals(magic, CONTAINER_MAGIC)
+                    || (version != CONTAINER_VERSION && version != CONTAINER_VERSION_SINGLE)) {
+                throw new Exception("container file corrupted");
+            }
+            in.readFully(new byte[Identifier.ID_BYTE_ARR_LENGTH]); // sender ID
+
+            final byte[] wrappedKey;
+            final String fileName;
+            if (version == CONTAINER_VERSION_SINGLE) {
+                final byte[] receiverIdBytes = new byte[Identifier.ID_BYTE_ARR_LENGTH];
+                in.readFully(receiverIdBytes);
+                fileName = in.readUTF();
+                wrappedKey = new byte[in.readUnsignedShort()];
+                in.readFully(wrappedKey);
+                checkReceiver(new Identifier(receiverIdBytes), card);
+            } else {
+                fileName = in.readUTF();
+                wrappedKey = readKeySlot(in, card.getPersonId());
+                if (wrappedKey == null) noReceiverSlot(card);
+            }
+
+            final SymmetricKeys key = unwrapKey(wrappedKey, privateRsaKey);
+            final File target = outputPolicy.resolve(getBaseName(fileName), getExtension(fileName));
+            channel.position(headerIn.getByteCount());
+            decryptTo(key, channel, target, progress);
+            return target;
+        }
+    }
+
+    /**
+     * a failed or cancelled decryption (e.g. a GCM chunk that does not authenticate) leaves no partial output behind
+     */
+    private static void decryptTo(@NonNull final SymmetricKeys key,
+                                  @NonNull final FileChannel in,
+                                  @NonNull final File target,
+                                  @NonNull final Progress progress) throws Exception {
+        try (FileChannel out = openForWriting(target)) {
+            key.decrypt(in, out, progress);
+        } catch (Exception e) {
+            Files.deleteIfExists(target.toPath());
+            throw e;
+        }
+    }
+
+    private static FileChannel openForWriting(@NonNull final File file) throws IOException {
+        return FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * reads all key slots, so that the stream ends up at the ciphertext
+     */
+    private static byte[] readKeySlot(@NonNull final DataInputStream in,
+                                      @NonNull final Identifier receiverID) throws IOException {
+        byte[] found = null;
+        final byte[] receiverIdBytes = new byte[Identifier.ID_BYTE_ARR_LENGTH];
+        final int slots = in.readUnsignedShort();
+        for (int i = 0; i < slots; i++) {
+            in.readFully(receiverIdBytes);
+            final byte[] wrappedKey = new byte[in.readUnsignedShort()];
+            in.readFully(wrappedKey);
+            if (found == null && receiverID.equals(new Identifier(receiverIdBytes))) {
+                found = wrappedKey;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * .hcm containers and JSON files are told apart by their extension
+     */
+    public static File recreateFile(@NonNull final Card card,
+                                    @NonNull final PrivateRsaKey privateRsaKey,
+                                    @NonNull final File file,
+                                    @NonNull final OutputPolicy outputPolicy) throws Exception {
+        return recreateFile(card, privateRsaKey, file, outputPolicy, Progress.NONE);
+    }
+
+    /**
+     * progress counts the ciphertext bytes decrypted
+     */
+    public static File recreateFile(@NonNull final Card card,
+                                    @NonNull final PrivateRsaKey privateRsaKey,
+                                    @NonNull final File file,
+                                    @NonNull final OutputPolicy outputPolicy,
+                                    @NonNull final Progress progress) throws Exception {
+        if (CONTAINER_EXT.equalsIgnoreCase(getExtension(file.getName()))) {
+            return recreateFileFromContainer(card, privateRsaKey, file, outputPolicy, progress);
+        } else {
+            return recreateFileFromJson(card, privateRsaKey, file, outputPolicy, progress);
+        }
+    }
+
+    public File encryptAndSaveToJson(@NonNull final OutputPolicy outputPolicy) throws Exception {
+        return encryptAndSaveToJson(outputPolicy, Progress.NONE);
+    }
+
+    /**
+     * progress counts the plaintext bytes encrypted
+     */
+    public File encryptAndSaveToJson(@NonNull final OutputPolicy outputPolicy,
+                                     @NonNull final Progress progress) throws Exception {
+        checkReceivers(Mode.ENCRYPTION_JSON, receiversCards);
+        final Trace trace = Trace.begin(Trace.Kind.MESSAGE_ENCRYPT);
+        final Type receiversKeyType = receiversCards.get(0).getPersonPubKey().getType();
+        try {
+            final File target = encryptToJson(outputPolicy, progress);
+            trace.end(file.length(), receiversKeyType, null);
+            return target;
+        } catch (Exception e) {
+            trace.end(file.length(), receiversKeyType, e);
+            throw e;
+        }
+    }
+
+    private File encryptToJson(@NonNull final OutputPolicy outputPolicy,
+                               @NonNull final Progress progress) throws Exception {
+        final SymmetricKeys aesKey = generateKey(PAYLOAD_KEY_TYPE, randAlphabeticStr(12));
+        if (aesKey == null) throw new NullPointerException("aesKey == null");
+        final Card receiversCard = receiversCards.get(0);
+        final File target = outputPolicy.resolve(getBaseName(file.getAbsolutePath()), JSON_EXT);
+        final File encFile = createTempFile(target);
+        try {
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 FileChannel out = openForWriting(encFile)) {
+                aesKey.encrypt(in, out, progress);
+            }
+            final long start = Metrics.start();
+            JsonFactory factory = new JsonFactory();
+            try (JsonGenerator generator = factory.createGenerator(target, JsonEncoding.UTF8);
+                 InputStream encIn = new BufferedInputStream(new FileInputStream(encFile))) {
+                generator.useDefaultPrettyPrinter();
+                generator.writeStartObject();
+                generator.writeStringField(SENDER_ID_KEY, Base64Conversion.objToBase64Str(senderId));
+                generator.writeStringField(RECEIVER_ID_KEY, Base64Conversion.objToBase64Str(receiversCard.getPersonId()));
+                generator.writeStringField(FILE_NAME_KEY, file.getName());
+                generator.writeStringField(ENC_SYM_KEY, prepareKeyToSend(aesKey, receiversCard));
+                generator.writeFieldName(ENC_FILE_KEY);
+                generator.writeBinary(encIn, -1);
+                generator.writeEndObject();
+            } catch (Exception e) {
+                Metrics.failed(Stage.JSON_ENCODE, start);
+                throw e;
+            }
+            Metrics.record(Stage.JSON_ENCODE, start, target.length());
+        } catch (Exception e) {
+            Files.deleteIfExists(target.toPath());
+            throw e;
+        } finally {
+            Files.deleteIfExists(encFile.toPath());
+        }
+        return target;
+    }
+
+    /**
+     * the ciphertext is spooled next to the given file instead of being kept in memory
+     */
+    private static File createTempFile(@NonNull final File nextTo) throws IOException {
+        return File.createTempFile("enc", ".tmp", nextTo.getAbsoluteFile().getParentFile());
+    }
+
+    public static File recreateFileFromJson(@NonNull final Card card,
+                                            @NonNull final PrivateRsaKey privateRsaKey,
+                                            @NonNull final File jsonFile,
+                                            @NonNull final OutputPolicy outputPolicy) throws Exception {
+        return recreateFileFromJson(card, privateRsaKey, jsonFile, outputPolicy, Progress.NONE);
+    }
+
+    public static File recreateFileFromJson(@NonNull final Card card,
+                                            @NonNull final PrivateRsaKey privateRsaKey,
+                                            @NonNull final File jsonFile,
+                                            @NonNull final OutputPolicy outputPolicy,
+                                            @NonNull final Progress progress) throws Exception {
+
+        if(!jsonFile.getName().toLowerCase().contains(".json")) {
+            Notifications.notify("JSON file required!", Notifier.Level.ERROR);
+            throw new Exception("json file required");
+        }
+
+        final Trace trace = Trace.begin(Trace.Kind.MESSAGE_DECRYPT);
+        final File encFile = createTempFile(jsonFile);
+        try {
+            final File target = recreateFileFromJson(card, privateRsaKey, jsonFile, encFile, outputPolicy, progress);
+            trace.end(jsonFile.length(), privateRsaKey.getType(), null);
+            return target;
+        } catch (Exception e) {
+            trace.end(jsonFile.length(), privateRsaKey.getType(), e);
+            throw e;
+        } finally {
+            Files.deleteIfExists(encFile.toPath());
+        }
+    }
+
+    private static File recreateFileFromJson(@NonNull final Card card,
+                                             @NonNull final PrivateRsaKey privateRsaKey,
+                                             @NonNull final File jsonFile,
+                                             @NonNull final File encFile,
+                                             @NonNull final OutputPolicy outputPolicy,
+                                             @NonNull final Progress progress) throws Exception {
+
+        String receiverStrID = null;
+        String fileName = null;
+        boolean encFileFound = false;
+        String base64EncKey = null;
+
+        final long start = Metrics.start();
+        JsonFactory factory = new JsonFactory();
+        try (JsonParser parser = factory.createParser(jsonFile)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new Exception("json file corrupted");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case RECEIVER_ID_KEY:
+                        receiverStrID = parser.getValueAsString();
+                        break;
+                    case FILE_NAME_KEY:
+                        fileName = parser.getValueAsString();
+                        break;
+                    case ENC_FILE_KEY:
+                        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(encFile))) {
+                            parser.readBinaryValue(out);
+                        }
+                        encFileFound = true;
+                        break;
+                    case ENC_SYM_KEY:
+                        base64EncKey = parser.getValueAsString();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (Exception e) {
+            Metrics.failed(Stage.JSON_DECODE, start);
+            throw e;
+        }
+        Metrics.record(Stage.JSON_DECODE, start, jsonFile.length());
+
+        if (isEmpty(receiverStrID) || isEmpty(fileName) || !encFileFound || isEmpty(base64EncKey)) {
+            throw new Exception("json file corrupted");
+        }
+
+        @NonNull final Identifier receiverID = Base64Conversion.base64StrToObj(receiverStrID, Identifier.class,
+                Card.LEGACY_ID_CLASSES);
+        checkReceiver(receiverID, card);
+
+        @NonNull final SymmetricKeys key = recreateKey(base64EncKey, privateRsaKey);
+        final File target = outputPolicy.resolve(getBaseName(fileName), getExtension(fileName));
+
+        try (FileChannel in = FileChannel.open(encFile.toPath(), StandardOpenOption.READ)) {
+            decryptTo(key, in, target, progress);
+        }
+        return target;
+    }
+}
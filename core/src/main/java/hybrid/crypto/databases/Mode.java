@@ -4,6 +4,7 @@ import lombok.Getter;
 
 public enum Mode {
     ENCRYPTION("encryption"),
+    ENCRYPTION_JSON("encryption (JSON)"),
     DECRYPTION("decryption"),
     ;
 
@@ -0,0 +1,189 @@
+package hybrid.crypto.databases;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * the .profile files under the data directory (root/&lt;profile&gt;/&lt;profile&gt;.profile, or directly in root),
+ * found by a scan two levels deep - the rest of the tree (messages, cards) is never visited - and
+ * sorted by name and path, never by content
+ *
+ * watch() keeps the list fresh with a WatchService on root and its subdirectories; refresh() rescans on demand
+ */
+public final class ProfileCatalog implements AutoCloseable {
+    private static final int MAX_DEPTH = 2;
+    private static final long SETTLE_MILLIS = 100;
+
+    public static final class Entry implements Comparable<Entry> {
+        @Getter private final String name;
+        @Getter private final Path path;
+        @Getter private final long size;
+        @Getter private final long lastModified;
+
+        private Entry(final Path path, final BasicFileAttributes attributes) {
+            final String fileName = path.getFileName().toString();
+            this.name = fileName.substring(0, fileName.length() - Database.EXTENSION.length());
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        public int compareTo(@NonNull final Entry o) {
+            final int c = name.compareToIgnoreCase(o.name);
+            return (c != 0) ? (c) : (path.compareTo(o.path));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Entry entry = (Entry) o;
+            return size == entry.size && lastModified == entry.lastModified && path.equals(entry.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    @Getter private final Path root;
+    private volatile List<Entry> entries = Collections.emptyList();
+    private volatile Runnable listener;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ProfileCatalog(@NonNull final Path root) {
+        this.root = root.toAbsolutePath();
+    }
+
+    /**
+     * the last scan, sorted
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * called from the watcher thread when the list changes after watch()
+     */
+    public void setListener(final Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * rescans; returns the fresh list
+     */
+    public synchronized List<Entry> refresh() {
+        final List<Entry> found = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            try {
+                Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), MAX_DEPTH,
+                        new SimpleFileVisitor<Path>() {
+                            @Override
+                            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                                if (attributes.isRegularFile() && isProfile(file)) {
+                                    found.add(new Entry(file, attributes));
+                                }
+                                return FileVisitResult.CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                                return FileVisitResult.CONTINUE;
+                            }
+                        });
+            } catch (IOException e) {
+                // keep what was found
+            }
+        }
+        Collections.sort(found);
+        final List<Entry> list = Collections.unmodifiableList(found);
+        final boolean changed = !list.equals(entries);
+        entries = list;
+        if (changed && watcher != null && listener != null) listener.run();
+        return list;
+    }
+
+    private static boolean isProfile(final Path file) {
+        final String fileName = file.getFileName().toString();
+        return fileName.length() > Database.EXTENSION.length() && fileName.endsWith(Database.EXTENSION);
+    }
+
+    /**
+     * starts the watcher thread (once); changes are picked up after a short settling delay
+     */
+    public synchronized void watch() throws IOException {
+        if (watcher != null) return;
+        Files.createDirectories(root);
+        watchService = root.getFileSystem().newWatchService();
+        register(root);
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (final Path dir : dirs) register(dir);
+        }
+        refresh();
+        watcher = new Thread(this::watchLoop, "profile-catalog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void register(final Path dir) throws IOException {
+        dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+    }
+
+    private void watchLoop() {
+        final WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                Thread.sleep(SETTLE_MILLIS);
+                boolean relevant = false;
+                while (key != null) {
+                    final Path dir = (Path) key.watchable();
+                    for (final WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == OVERFLOW) {
+                            relevant = true;
+                            continue;
+                        }
+                        final Path child = dir.resolve((Path) event.context());
+                        if (dir.equals(root) && event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                            register(child);
+                            relevant = true;
+                        } else if (isProfile(child) || dir.equals(root)) {
+                            relevant = true;
+                        }
+                    }
+                    key.reset();
+                    key = service.poll();
+                }
+                if (relevant) refresh();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (IOException e) {
+            // stop watching; refresh() still works
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcher == null) return;
+        watcher.interrupt();
+        watchService.close();
+        watcher = null;
+        watchService = null;
+    }
+}
@@ -0,0 +1,308 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.AesKey;
+import hybrid.crypto.keys.Kdf;
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * .profile file: header, then records [u32 length][encrypted record];
+ * record plaintext: u32 sequence number, kind, payload
+ *
+ * header v1: magic "HCPF", version, salt length, salt - records sealed with the password-derived key
+ * header v2: v1 + u16 length, data key wrapped by the password-derived key - records sealed with the data key
+ * header v3: v2 with the KDF after the salt - u8 algorithm, u32 iterations, u32 memory (KiB), u8 parallelism;
+ *            v1 and v2 imply Kdf.LEGACY
+ *
+ * the first record is a SNAPSHOT of the whole Database, the following ones are single changes,
+ * so saving a change appends one small record instead of rewriting the file
+ *
+ * crash safety: a new file is written next to the profile, synced and renamed over it, so the profile is
+ * either the old or the new one; appends are synced, and a torn append is cut off on the next read
+ */
+final class ProfileLog {
+    private static final byte[] MAGIC = {'H', 'C', 'P', 'F'};
+    static final byte VERSION_PASSWORD_KEY = 1;
+    static final byte VERSION_DATA_KEY = 2;
+    static final byte VERSION_KDF = 3;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    static final byte SNAPSHOT = 0;
+    static final byte REMOVE_CARD = 2;
+    /**
+     * Card.toBytes()
+     */
+    static final byte PUT_CARD_COMPACT = 3;
+
+    private ProfileLog() {}
+
+    static final class Record {
+        @Getter private final byte kind;
+        @Getter private final byte[] payload;
+
+        Record(final byte kind, @NonNull final byte[] payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    static final class Header {
+        @Getter private final byte version;
+        @Getter private final byte[] salt;
+        @Getter private final Kdf kdf;
+        /**
+         * null for VERSION_PASSWORD_KEY
+         */
+        @Getter private final byte[] wrappedKey;
+
+        Header(@NonNull final byte[] salt, @NonNull final Kdf kdf, @NonNull final byte[] wrappedKey) {
+            this(VERSION_KDF, salt, kdf, wrappedKey);
+        }
+
+        private Header(final byte version, @NonNull final byte[] salt, @NonNull final Kdf kdf, final byte[] wrappedKey) {
+            this.version = version;
+            this.salt = salt;
+            this.kdf = kdf;
+            this.wrappedKey = wrappedKey;
+        }
+
+        private int length() {
+            return MAGIC.length + 2 + salt.length
+                    + ((version >= VERSION_KDF) ? (10) : (0))
+                    + ((wrappedKey != null) ? (2 + wrappedKey.length) : (0));
+        }
+
+        private void writeTo(@NonNull final DataOutputStream out) throws IOException {
+            out.write(MAGIC);
+            out.writeByte(version);
+            out.writeByte(salt.length);
+            out.write(salt);
+            if (version >= VERSION_KDF) {
+                out.writeByte(kdf.getAlgorithm().getId());
+                out.writeInt(kdf.getIterations());
+                out.writeInt(kdf.getMemoryKiB());
+                out.writeByte(kdf.getParallelism());
+            }
+            if (wrappedKey != null) {
+                out.writeShort(wrappedKey.length);
+                out.write(wrappedKey);
+            }
+        }
+    }
+
+    static final class Contents {
+        @Getter private final List<Record> records;
+        /**
+         * end of the last complete record; anything after it is a torn append
+         */
+        @Getter private final long validLength;
+
+        private Contents(@NonNull final List<Record> records, final long validLength) {
+            this.records = Collections.unmodifiableList(records);
+            this.validLength = validLength;
+        }
+    }
+
+    static boolean isLog(@NonNull final File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            final byte[] magic = new byte[MAGIC.length];
+            int off = 0;
+            while (off < magic.length) {
+                final int n = in.read(magic, off, magic.length - off);
+                if (n == -1) return false;
+                off += n;
+            }
+            return Arrays.equals(magic, MAGIC);
+        }
+    }
+
+    static byte[] readFile(@NonNull final File file) throws IOException {
+        final long start = Metrics.start();
+        try {
+            final byte[] bytes = Files.readAllBytes(file.toPath());
+            Metrics.record(Stage.FILE_READ, start, bytes.length);
+            return bytes;
+        } catch (IOException e) {
+            Metrics.failed(Stage.FILE_READ, start);
+            throw e;
+        }
+    }
+
+    static Header readHeader(@NonNull final File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return readHeader(in);
+        }
+    }
+
+    private static Header readHeader(@NonNull final DataInputStream in) throws IOException {
+        final byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("not a profile log");
+        final byte version = in.readByte();
+        if (version != VERSION_PASSWORD_KEY && version != VERSION_DATA_KEY && version != VERSION_KDF) {
+            throw new IOException("unsupported profile version");
+        }
+        final byte[] salt = new byte[in.readUnsignedByte()];
+        in.readFully(salt);
+        Kdf kdf = Kdf.LEGACY;
+        if (version >= VERSION_KDF) {
+            try {
+                kdf = Kdf.of(Kdf.Algorithm.byId(in.readByte()), in.readInt(), in.readInt(), in.readUnsignedByte());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("unsupported KDF parameters", e);
+            }
+        }
+        if (version == VERSION_PASSWORD_KEY) return new Header(version, salt, kdf, null);
+        final byte[] wrappedKey = new byte[in.readUnsignedShort()];
+        in.readFully(wrappedKey);
+        return new Header(version, salt, kdf, wrappedKey);
+    }
+
+    /**
+     * replaces the file with a header and a single snapshot record (temp file, fsync, atomic rename);
+     * returns the new file length
+     */
+    static long write(@NonNull final File file,
+                      @NonNull final Header header,
+                      @NonNull final AesKey key,
+                      @NonNull final byte[] snapshot) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(snapshot.length + 256);
+        final DataOutputStream out = new DataOutputStream(buffer);
+        header.writeTo(out);
+        writeRecord(out, key, 0, new Record(SNAPSHOT, snapshot));
+
+        final Path target = file.getAbsoluteFile().toPath();
+        final Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        final long start = Metrics.start();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, ByteBuffer.wrap(buffer.toByteArray()));
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            Metrics.failed(Stage.FILE_WRITE, start);
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(target.getParent());
+        Metrics.record(Stage.FILE_WRITE, start, buffer.size());
+        return buffer.size();
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * makes the rename durable where the platform allows opening a directory (not on Windows)
+     */
+    private static void syncDirectory(final Path dir) {
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    /**
+     * appends records firstSeq, firstSeq + 1, ... after the last complete record; returns the new file length
+     */
+    static long append(@NonNull final File file,
+                       final long validLength,
+                       @NonNull final AesKey key,
+                       final int firstSeq,
+                       @NonNull final List<Record> records) throws Exception {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(buffer);
+        int seq = firstSeq;
+        for (final Record record : records) {
+            writeRecord(out, key, seq++, record);
+        }
+        final long start = Metrics.start();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            if (channel.size() != validLength) channel.truncate(validLength);
+            channel.position(validLength);
+            writeFully(channel, ByteBuffer.wrap(buffer.toByteArray()));
+            channel.force(false);
+        } catch (Exception e) {
+            Metrics.failed(Stage.FILE_WRITE, start);
+            throw e;
+        }
+        Metrics.record(Stage.FILE_WRITE, start, buffer.size());
+        return validLength + buffer.size();
+    }
+
+    private static void writeRecord(@NonNull final DataOutputStream out,
+                                    @NonNull final AesKey key,
+                                    final int seq,
+                                    @NonNull final Record record) throws Exception {
+        final ByteArrayOutputStream plain = new ByteArrayOutputStream(record.payload.length + 5);
+        final DataOutputStream plainOut = new DataOutputStream(plain);
+        plainOut.writeInt(seq);
+        plainOut.writeByte(record.kind);
+        plainOut.write(record.payload);
+        final byte[] enc = key.encrypt(plain.toByteArray());
+        out.writeInt(enc.length);
+        out.write(enc);
+    }
+
+    /**
+     * a record that does not authenticate means a wrong password or a damaged file,
+     * a record cut short at the end of the file is a torn append and is ignored
+     *
+     * the file is read in one go (a profile is held in memory anyway), then parsed
+     */
+    static Contents read(@NonNull final File file, @NonNull final AesKey key) throws Exception {
+        final List<Record> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFile(file)))) {
+            long validLength = readHeader(in).length();
+            while (true) {
+                final byte[] enc;
+                try {
+                    final int length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) throw new IOException("profile corrupted");
+                    enc = new byte[length];
+                    in.readFully(enc);
+                } catch (EOFException e) {
+                    break;
+                }
+                final DataInputStream plain = new DataInputStream(new ByteArrayInputStream(key.decrypt(enc)));
+                if (plain.readInt() != records.size()) throw new IOException("profile corrupted");
+                final byte kind = plain.readByte();
+                final byte[] payload = new byte[plain.available()];
+                plain.readFully(payload);
+                records.add(new Record(kind, payload));
+                validLength += 4 + enc.length;
+            }
+            if (records.isEmpty() || records.get(0).kind != SNAPSHOT) {
+                throw new IOException("profile corrupted");
+            }
+            return new Contents(records, validLength);
+        }
+    }
+}
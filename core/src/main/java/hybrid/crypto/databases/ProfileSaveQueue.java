@@ -0,0 +1,115 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.algorithms.Notifications;
+import hybrid.crypto.algorithms.Notifier;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * write-behind saving of one open profile: requestSave() returns at once, the changes are saved
+ * (Database.saveChanges()) by a single writer thread once no request has come for debounceMillis,
+ * so a burst of edits costs one save and saves never overlap
+ *
+ * a failed save is reported through Notifications; its changes stay pending and go out with the next save
+ */
+public final class ProfileSaveQueue implements AutoCloseable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    private final Database database;
+    private final long debounceMillis;
+    private final ScheduledExecutorService writer;
+
+    /* guarded by this: a save is scheduled and has not started yet */
+    private boolean scheduled;
+    private boolean closed;
+
+    @Getter private final AtomicLong requests = new AtomicLong();
+    @Getter private final AtomicLong saves = new AtomicLong();
+
+    public ProfileSaveQueue(@NonNull final Database database) {
+        this(database, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public ProfileSaveQueue(@NonNull final Database database, final long debounceMillis) {
+        if (debounceMillis < 0) throw new IllegalArgumentException("debounceMillis < 0");
+        this.database = database;
+        this.debounceMillis = debounceMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread t = new Thread(r, "profile-writer-" + database.getDatabaseName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public synchronized void requestSave() {
+        if (closed) throw new IllegalStateException("save queue closed");
+        requests.incrementAndGet();
+        if (scheduled) return;
+        scheduled = true;
+        writer.schedule(this::saveInBackground, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void saveInBackground() {
+        synchronized (this) {
+            scheduled = false;
+        }
+        try {
+            save();
+        } catch (Exception e) {
+            Notifications.notify("The profile could not be saved: " + e.getMessage(), Notifier.Level.ERROR);
+        }
+    }
+
+    private void save() throws Exception {
+        database.saveChanges();
+        saves.incrementAndGet();
+    }
+
+    /**
+     * saves what is pending now, in the writer thread, and waits for it
+     */
+    public void flush() throws Exception {
+        try {
+            writer.submit(() -> {
+                save();
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? ((Exception) e.getCause()) : (e);
+        }
+    }
+
+    /**
+     * flushes and stops the writer thread; call before Database.lock()
+     *
+     * @throws InterruptedIOException   interrupted while waiting for the save (the interrupt flag is kept)
+     * @throws IOException              the save failed, with its exception as the cause
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while saving the profile");
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("the profile could not be saved", e);
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package hybrid.crypto.keys;
+
+import hybrid.crypto.algorithms.Progress;
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import lombok.NonNull;
+import org.apache.commons.io.input.CountingInputStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import static hybrid.crypto.algorithms.Utils.secureRandom;
+
+public class AesKey extends SymmetricKeys {
+    private static final long serialVersionUID = -6642911129559530162L;
+    private static final int IV_SIZE = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int GCM_NONCE_SIZE = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final int GCM_TAG_SIZE = GCM_TAG_BITS / 8;
+    private static final int GCM_NONCE_PREFIX_SIZE = 7;
+    private static final int GCM_CHUNK_SIZE = 64 * 1024;
+    private static final long GCM_MAX_CHUNKS = 0xFFFFFFFFL;
+
+    @NonNull private final byte[] secretKeyBytes;
+    private transient volatile SecretKey secretKey;
+
+    /**
+     * only for database encryption and decryption
+     */
+    public AesKey(@NonNull final SecretKey secretKey, @NonNull Type type, @NonNull String keyLabel) {
+        super(keyLabel, type);
+        this.secretKeyBytes = secretKey.getEncoded();
+    }
+
+    AesKey(@NonNull Type type, @NonNull String keyLabel) throws Exception {
+        super(keyLabel, type);
+
+        final KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(type.getKeySize(), secureRandom);
+        final SecretKey secretKey = keyGen.generateKey();
+        this.secretKeyBytes = secretKey.getEncoded();
+    }
+
+    /**
+     * the raw key, as in toBytes()
+     */
+    static AesKey fromEncoded(@NonNull final Type type, @NonNull final byte[] keyBytes) {
+        if (!type.isSymmetric() || keyBytes.length != type.getKeySize() / 8) {
+            throw new IllegalArgumentException(type.getShortName() + " key expected");
+        }
+        return new AesKey(new SecretKeySpec(keyBytes, "AES"), type, type.getShortName());
+    }
+
+    @Override
+    public byte[] toBytes() {
+        final byte[] bytes = new byte[1 + secretKeyBytes.length];
+        bytes[0] = typeId;
+        System.arraycopy(secretKeyBytes, 0, bytes, 1, secretKeyBytes.length);
+        return bytes;
+    }
+
+    private SecretKey getSecretKey() {
+        SecretKey key = secretKey;
+        if (key == null) {
+            key = new SecretKeySpec(secretKeyBytes, 0, secretKeyBytes.length, "AES");
+            secretKey = key;
+        }
+        return key;
+    }
+
+    private boolean isGcm() {
+        return getType() == Type.AES_2;
+    }
+
+    /**
+     * thread-safe: the IV and the cipher are local to the call, the key spec is immutable
+     *
+     * output: CBC - IV + ciphertext, GCM - the chunked framing of encrypt(InputStream, OutputStream)
+     */
+    @Override
+    public byte[] encrypt(byte[] bytes) throws Exception {
+        final long start = Metrics.start();
+        try {
+            final byte[] enc = encryptBytes(bytes);
+            Metrics.record(Stage.AES_ENCRYPT, start, bytes.length);
+            return enc;
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_ENCRYPT, start);
+            throw e;
+        }
+    }
+
+    private byte[] encryptBytes(byte[] bytes) throws Exception {
+        if (isGcm()) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(GCM_NONCE_PREFIX_SIZE + bytes.length
+                    + GCM_TAG_SIZE * (1 + bytes.length / GCM_CHUNK_SIZE));
+            encryptChunked(new ByteArrayInputStream(bytes), out);
+            return out.toByteArray();
+        }
+        final byte[] initVector = new byte[IV_SIZE];
+        secureRandom.nextBytes(initVector);
+        final IvParameterSpec paramSpec = new IvParameterSpec(initVector);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), paramSpec, secureRandom);
+            final byte[] outputBytes = new byte[initVector.length + cipher.getOutputSize(bytes.length)];
+            System.arraycopy(
+                    initVector, 0,
+                    outputBytes, 0,
+                    initVector.length
+            );
+            final int n = cipher.doFinal(bytes, 0, bytes.length, outputBytes, initVector.length);
+            return (initVector.length + n == outputBytes.length)
+                    ? (outputBytes)
+                    : (Arrays.copyOf(outputBytes, initVector.length + n));
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    @Override
+    public byte[] decrypt(byte[] bytes) throws Exception {
+        final long start = Metrics.start();
+        try {
+            final byte[] dec = decryptBytes(bytes);
+            Metrics.record(Stage.AES_DECRYPT, start, bytes.length);
+            return dec;
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_DECRYPT, start);
+            throw e;
+        }
+    }
+
+    private byte[] decryptBytes(byte[] bytes) throws Exception {
+        if (isGcm()) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+            decryptChunked(new ByteArrayInputStream(bytes), out);
+            return out.toByteArray();
+        }
+        if (bytes.length < IV_SIZE) throw new IllegalArgumentException("IV expected");
+        final IvParameterSpec paramSpec = new IvParameterSpec(bytes, 0, IV_SIZE);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), paramSpec);
+            return cipher.doFinal(bytes, IV_SIZE, bytes.length - IV_SIZE);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    /**
+     * same output as encrypt(byte[]), but constant memory; measured by the input bytes read
+     */
+    @Override
+    public void encrypt(@NonNull final InputStream in, @NonNull final OutputStream out) throws Exception {
+        final long start = Metrics.start();
+        final CountingInputStream counting = new CountingInputStream(in);
+        try {
+            encryptStream(counting, out);
+            Metrics.record(Stage.AES_ENCRYPT, start, counting.getByteCount());
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_ENCRYPT, start);
+            throw e;
+        }
+    }
+
+    private void encryptStream(final InputStream in, final OutputStream out) throws Exception {
+        if (isGcm()) {
+            encryptChunked(in, out);
+            return;
+        }
+        final byte[] iv = new byte[IV_SIZE];
+        secureRandom.nextBytes(iv);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), new IvParameterSpec(iv), secureRandom);
+            out.write(iv);
+            update(cipher, in, out);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    @Override
+    public void decrypt(@NonNull final InputStream in, @NonNull final OutputStream out) throws Exception {
+        final long start = Metrics.start();
+        final CountingInputStream counting = new CountingInputStream(in);
+        try {
+            decryptStream(counting, out);
+            Metrics.record(Stage.AES_DECRYPT, start, counting.getByteCount());
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_DECRYPT, start);
+            throw e;
+        }
+    }
+
+    private void decryptStream(final InputStream in, final OutputStream out) throws Exception {
+        if (isGcm()) {
+            decryptChunked(in, out);
+            return;
+        }
+        final byte[] iv = new byte[IV_SIZE];
+        if (readFully(in, iv, 0) != iv.length) throw new EOFException("IV expected");
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), new IvParameterSpec(iv));
+            update(cipher, in, out);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    @Override
+    public void encrypt(@NonNull final ReadableByteChannel in, @NonNull final WritableByteChannel out,
+                        @NonNull final Progress progress) throws Exception {
+        final long start = Metrics.start();
+        final CountingProgress counting = new CountingProgress(progress);
+        try {
+            encryptChannel(in, out, counting);
+            Metrics.record(Stage.AES_ENCRYPT, start, counting.bytes);
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_ENCRYPT, start);
+            throw e;
+        }
+    }
+
+    private void encryptChannel(final ReadableByteChannel in, final WritableByteChannel out, final Progress progress)
+            throws Exception {
+        if (isGcm()) {
+            encryptChunked(in, out, progress);
+            return;
+        }
+        final byte[] iv = new byte[IV_SIZE];
+        secureRandom.nextBytes(iv);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), new IvParameterSpec(iv), secureRandom);
+            writeFully(out, ByteBuffer.wrap(iv));
+            update(cipher, in, out, progress);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    @Override
+    public void decrypt(@NonNull final ReadableByteChannel in, @NonNull final WritableByteChannel out,
+                        @NonNull final Progress progress) throws Exception {
+        final long start = Metrics.start();
+        final CountingProgress counting = new CountingProgress(progress);
+        try {
+            decryptChannel(in, out, counting);
+            Metrics.record(Stage.AES_DECRYPT, start, counting.bytes);
+        } catch (Exception e) {
+            Metrics.failed(Stage.AES_DECRYPT, start);
+            throw e;
+        }
+    }
+
+    private void decryptChannel(final ReadableByteChannel in, final WritableByteChannel out, final Progress progress)
+            throws Exception {
+        if (isGcm()) {
+            decryptChunked(in, out, progress);
+            return;
+        }
+        final ByteBuffer iv = ByteBuffer.allocate(IV_SIZE);
+        if (readFully(in, iv) != IV_SIZE) throw new EOFException("IV expected");
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), new IvParameterSpec(iv.array()));
+            update(cipher, in, out, progress);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    private static void update(@NonNull final Cipher cipher,
+                               @NonNull final ReadableByteChannel in,
+                               @NonNull final WritableByteChannel out,
+                               @NonNull final Progress progress) throws Exception {
+        final ByteBuffer inBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /* room for a full input buffer plus the block held back from the previous update() */
+        final ByteBuffer outBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE + 2 * IV_SIZE);
+        while (in.read(inBuffer) != -1) {
+            progress.advance(inBuffer.position());
+            inBuffer.flip();
+            outBuffer.clear();
+            cipher.update(inBuffer, outBuffer);
+            outBuffer.flip();
+            writeFully(out, outBuffer);
+            inBuffer.clear();
+        }
+        inBuffer.flip();
+        outBuffer.clear();
+        cipher.doFinal(inBuffer, outBuffer);
+        outBuffer.flip();
+        writeFully(out, outBuffer);
+    }
+
+    private static void update(@NonNull final Cipher cipher,
+                               @NonNull final InputStream in,
+                               @NonNull final OutputStream out) throws Exception {
+        final byte[] inBuffer = new byte[BUFFER_SIZE];
+        final byte[] outBuffer = new byte[cipher.getOutputSize(BUFFER_SIZE)];
+        int n;
+        while ((n = in.read(inBuffer)) != -1) {
+            out.write(outBuffer, 0, cipher.update(inBuffer, 0, n, outBuffer));
+        }
+        out.write(outBuffer, 0, cipher.doFinal(outBuffer, 0));
+    }
+
+    /**
+     * GCM stream framing (STREAM construction):
+     * 7-byte random nonce prefix, then chunks of 64 KiB plaintext, each sealed separately
+     * (ciphertext + 16-byte tag) with nonce = prefix | 4-byte chunk counter | last-chunk flag;
+     * the final chunk may be shorter (or empty) and is the only one sealed with the flag set,
+     * so reordered, dropped, truncated or appended chunks fail authentication
+     */
+    private void encryptChunked(@NonNull final InputStream in, @NonNull final OutputStream out) throws Exception {
+        final byte[] nonce = new byte[GCM_NONCE_SIZE];
+        secureRandom.nextBytes(nonce);
+        out.write(nonce, 0, GCM_NONCE_PREFIX_SIZE);
+
+        final byte[] inBuffer = new byte[GCM_CHUNK_SIZE];
+        final byte[] outBuffer = new byte[GCM_CHUNK_SIZE + GCM_TAG_SIZE];
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            int n = readFully(in, inBuffer, 0);
+            for (long counter = 0; ; counter++) {
+                final int next = (n == inBuffer.length) ? (in.read()) : (-1);
+                final boolean last = (next == -1);
+                chunkNonce(nonce, counter, last);
+                cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(),
+                        new GCMParameterSpec(GCM_TAG_BITS, nonce), secureRandom);
+                out.write(outBuffer, 0, cipher.doFinal(inBuffer, 0, n, outBuffer, 0));
+                if (last) return;
+                inBuffer[0] = (byte) next;
+                n = 1 + readFully(in, inBuffer, 1);
+            }
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    private void decryptChunked(@NonNull final InputStream in, @NonNull final OutputStream out) throws Exception {
+        final byte[] nonce = new byte[GCM_NONCE_SIZE];
+        if (readFully(in, nonce, 0, GCM_NONCE_PREFIX_SIZE) != GCM_NONCE_PREFIX_SIZE) {
+            throw new EOFException("nonce expected");
+        }
+
+        final byte[] inBuffer = new byte[GCM_CHUNK_SIZE + GCM_TAG_SIZE];
+        final byte[] outBuffer = new byte[GCM_CHUNK_SIZE];
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            int n = readFully(in, inBuffer, 0);
+            for (long counter = 0; ; counter++) {
+                if (n < GCM_TAG_SIZE) throw new EOFException("truncated chunk");
+                final int next = (n == inBuffer.length) ? (in.read()) : (-1);
+                final boolean last = (next == -1);
+                chunkNonce(nonce, counter, last);
+                cipher.init(Cipher.DECRYPT_MODE, getSecretKey(),
+                        new GCMParameterSpec(GCM_TAG_BITS, nonce));
+                out.write(outBuffer, 0, cipher.doFinal(inBuffer, 0, n, outBuffer, 0));
+                if (last) return;
+                inBuffer[0] = (byte) next;
+                n = 1 + readFully(in, inBuffer, 1);
+            }
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    /**
+     * the framing of encryptChunked(InputStream, OutputStream); one byte is read ahead of each chunk
+     * to find the last one
+     */
+    private void encryptChunked(@NonNull final ReadableByteChannel in, @NonNull final WritableByteChannel out,
+                                @NonNull final Progress progress) throws Exception {
+        final byte[] nonce = new byte[GCM_NONCE_SIZE];
+        secureRandom.nextBytes(nonce);
+        writeFully(out, ByteBuffer.wrap(nonce, 0, GCM_NONCE_PREFIX_SIZE));
+        sealChunks(in, out, progress, Cipher.ENCRYPT_MODE, nonce, GCM_CHUNK_SIZE, GCM_CHUNK_SIZE + GCM_TAG_SIZE);
+    }
+
+    private void decryptChunked(@NonNull final ReadableByteChannel in, @NonNull final WritableByteChannel out,
+                                @NonNull final Progress progress) throws Exception {
+        final ByteBuffer prefix = ByteBuffer.allocate(GCM_NONCE_PREFIX_SIZE);
+        if (readFully(in, prefix) != GCM_NONCE_PREFIX_SIZE) throw new EOFException("nonce expected");
+        final byte[] nonce = Arrays.copyOf(prefix.array(), GCM_NONCE_SIZE);
+        sealChunks(in, out, progress, Cipher.DECRYPT_MODE, nonce, GCM_CHUNK_SIZE + GCM_TAG_SIZE, GCM_CHUNK_SIZE);
+    }
+
+    private void sealChunks(final ReadableByteChannel in, final WritableByteChannel out, final Progress progress,
+                            final int mode, final byte[] nonce, final int inChunk, final int outChunk)
+            throws Exception {
+        final ByteBuffer inBuffer = ByteBuffer.allocateDirect(inChunk + 1);
+        final ByteBuffer outBuffer = ByteBuffer.allocateDirect(outChunk);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            for (long counter = 0; ; counter++) {
+                readFully(in, inBuffer);
+                final boolean last = inBuffer.position() <= inChunk;
+                if (mode == Cipher.DECRYPT_MODE && inBuffer.position() < GCM_TAG_SIZE) {
+                    throw new EOFException("truncated chunk");
+                }
+                progress.advance(last ? inBuffer.position() : inChunk);
+                chunkNonce(nonce, counter, last);
+                cipher.init(mode, getSecretKey(), new GCMParameterSpec(GCM_TAG_BITS, nonce), secureRandom);
+                inBuffer.flip();
+                if (!last) inBuffer.limit(inChunk);
+                outBuffer.clear();
+                cipher.doFinal(inBuffer, outBuffer);
+                outBuffer.flip();
+                writeFully(out, outBuffer);
+                if (last) return;
+                inBuffer.limit(inChunk + 1);
+                inBuffer.compact();
+            }
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    /**
+     * the input bytes of one call, for the metrics
+     */
+    private static final class CountingProgress implements Progress {
+        private final Progress progress;
+        private long bytes;
+
+        private CountingProgress(final Progress progress) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void add(final long bytes) {
+            this.bytes += bytes;
+            progress.add(bytes);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return progress.isCancelled();
+        }
+    }
+
+    /**
+     * reads until the buffer is full or the channel ends; returns the number of bytes read
+     */
+    private static int readFully(final ReadableByteChannel in, final ByteBuffer buffer) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining() && in.read(buffer) != -1) {
+            // keep reading
+        }
+        return buffer.position() - start;
+    }
+
+    private static void writeFully(final WritableByteChannel out, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static void chunkNonce(final byte[] nonce, final long counter, final boolean last) throws IOException {
+        if (counter > GCM_MAX_CHUNKS) throw new IOException("too many chunks");
+        nonce[GCM_NONCE_PREFIX_SIZE] = (byte) (counter >>> 24);
+        nonce[GCM_NONCE_PREFIX_SIZE + 1] = (byte) (counter >>> 16);
+        nonce[GCM_NONCE_PREFIX_SIZE + 2] = (byte) (counter >>> 8);
+        nonce[GCM_NONCE_PREFIX_SIZE + 3] = (byte) counter;
+        nonce[GCM_NONCE_SIZE - 1] = (byte) (last ? 1 : 0);
+    }
+
+    private static int readFully(final InputStream in, final byte[] buf, final int off) throws IOException {
+        return readFully(in, buf, off, buf.length);
+    }
+
+    /**
+     * reads into buf[off, end) until it is full or the stream ends; returns the number of bytes read
+     */
+    private static int readFully(final InputStream in, final byte[] buf, final int off, final int end)
+            throws IOException {
+        int pos = off;
+        while (pos < end) {
+            final int n = in.read(buf, pos, end - pos);
+            if (n == -1) break;
+            pos += n;
+        }
+        return pos - off;
+    }
+}
@@ -0,0 +1,82 @@
+package hybrid.crypto.keys;
+
+import hybrid.crypto.metrics.Trace;
+import lombok.NonNull;
+
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAKey;
+
+import static hybrid.crypto.algorithms.Utils.randAlphabeticStr;
+
+public abstract class AsymmetricKeys extends Keys {
+    /**
+     * the value computed for the class before it declared one, so older profiles and card files still load
+     */
+    private static final long serialVersionUID = 1071104135912073972L;
+
+    public AsymmetricKeys(@NonNull String keyLabel, @NonNull Type type) {
+        super(keyLabel, type);
+    }
+
+    public abstract boolean isPublic();
+    public abstract boolean isPrivate();
+
+    @Override
+    String newKeyFileNameWithExt() {
+        String typeInfo = "";
+        if(isPublic()) {
+            typeInfo += "public_";
+        } else if(isPrivate()) {
+            typeInfo += "private_";
+        }
+        return (keyLabel + "_" +
+                getType().getShortName()
+                + "_" + typeInfo
+                + randAlphabeticStr(9) + KEY_EXT);
+    }
+
+    public static MyKeyPair generatePair(@NonNull Type type, @NonNull String keyLabel) throws Exception {
+        if(type.isSymmetric()) return null;
+        final Trace trace = Trace.begin(Trace.Kind.KEY_GENERATION);
+        try {
+            final MyKeyPair keyPair = generate(type, keyLabel);
+            final int size = (keyPair != null) ? (((PublicRsaKey) keyPair.publicRsaKey).getEncoded().length) : (0);
+            trace.end(size, type, null);
+            return keyPair;
+        } catch (Exception e) {
+            trace.end(0, type, e);
+            throw e;
+        }
+    }
+
+    private static MyKeyPair generate(@NonNull Type type, @NonNull String keyLabel) throws Exception {
+        if(type == Type.RSA_1 || type == Type.RSA_2) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(type.getKeySize());
+            KeyPair keyPair = generator.generateKeyPair();
+            final PublicRsaKey publicRsaKey = new PublicRsaKey(type, keyLabel, keyPair.getPublic());
+            final PrivateRsaKey privateRsaKey = new PrivateRsaKey(type, keyLabel, keyPair.getPrivate());
+            return new MyKeyPair(publicRsaKey, privateRsaKey);
+        }
+        if(type == Type.EC_1) {
+            KeyPair keyPair = Ecies.generateKeyPair();
+            return new MyKeyPair(new PublicRsaKey(type, keyLabel, keyPair.getPublic()),
+                    new PrivateRsaKey(type, keyLabel, keyPair.getPrivate()));
+        }
+        return null;
+    }
+
+    /**
+     * the key matches the type: RSA modulus size, or the P-256 curve for EC_1
+     */
+    static void checkKey(@NonNull final Type type, @NonNull final Key key) throws InvalidKeyException {
+        if (type == Type.EC_1) {
+            Ecies.checkKey(key);
+        } else if (!(key instanceof RSAKey) || ((RSAKey) key).getModulus().bitLength() != type.getKeySize()) {
+            throw new InvalidKeyException(type.getShortName() + " key expected");
+        }
+    }
+}
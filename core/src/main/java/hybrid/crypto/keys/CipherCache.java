@@ -0,0 +1,32 @@
+package hybrid.crypto.keys;
+
+import lombok.NonNull;
+
+import javax.crypto.Cipher;
+import java.util.EnumMap;
+
+/**
+ * per-thread Cipher instances, one per Type; Cipher.getInstance() (provider lookup) is done
+ * once per thread and type instead of once per encrypt/decrypt call
+ *
+ * acquire() takes the cached instance out of the thread's map and release() puts it back,
+ * so a nested use of the same type on the same thread gets its own instance
+ */
+final class CipherCache {
+    private static final ThreadLocal<EnumMap<Type, Cipher>> CACHE =
+            ThreadLocal.withInitial(() -> new EnumMap<>(Type.class));
+
+    private CipherCache() {}
+
+    /**
+     * the returned cipher must be init()-ed before use
+     */
+    static Cipher acquire(@NonNull final Type type) throws Exception {
+        final Cipher cipher = CACHE.get().remove(type);
+        return (cipher != null) ? (cipher) : (Cipher.getInstance(type.getCipherType()));
+    }
+
+    static void release(@NonNull final Type type, @NonNull final Cipher cipher) {
+        CACHE.get().put(type, cipher);
+    }
+}
@@ -0,0 +1,189 @@
+package hybrid.crypto.keys;
+
+import lombok.NonNull;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.*;
+import java.util.Arrays;
+
+import static hybrid.crypto.algorithms.Utils.secureRandom;
+
+/**
+ * EC_1 encryption (ECIES): ephemeral-static ECDH on P-256, HKDF-SHA256 of the shared secret
+ * (salt: the ephemeral public point) into an AES-256 key and a GCM nonce, both used once
+ *
+ * output: ephemeral public point (uncompressed, 65 bytes), AES-GCM ciphertext + 16-byte tag
+ */
+final class Ecies {
+    private static final String CURVE = "secp256r1";
+    private static final int FIELD_SIZE = 32;
+    private static final int POINT_SIZE = 1 + 2 * FIELD_SIZE;
+    private static final byte UNCOMPRESSED = 4;
+    private static final int AES_KEY_SIZE = 32;
+    private static final int GCM_NONCE_SIZE = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final byte[] INFO = "hybrid-crypto EC_1 v1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ECParameterSpec P256 = p256();
+
+    private Ecies() {}
+
+    private static ECParameterSpec p256() {
+        try {
+            final AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(CURVE));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static KeyPair generateKeyPair() throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(P256, secureRandom);
+        return generator.generateKeyPair();
+    }
+
+    /**
+     * P-256 key, and for public keys a point on the curve
+     */
+    static void checkKey(@NonNull final Key key) throws InvalidKeyException {
+        if (!(key instanceof ECKey) || !isP256(((ECKey) key).getParams())) {
+            throw new InvalidKeyException(Type.EC_1.getShortName() + " key expected");
+        }
+        if (key instanceof ECPublicKey) checkPoint(((ECPublicKey) key).getW());
+    }
+
+    private static boolean isP256(final ECParameterSpec params) {
+        return params.getCurve().equals(P256.getCurve())
+                && params.getGenerator().equals(P256.getGenerator())
+                && params.getOrder().equals(P256.getOrder())
+                && params.getCofactor() == P256.getCofactor();
+    }
+
+    /**
+     * rejects points off the curve (invalid-curve attacks); P-256 has cofactor 1, so no small subgroups
+     */
+    private static void checkPoint(@NonNull final ECPoint point) throws InvalidKeyException {
+        if (point.equals(ECPoint.POINT_INFINITY)) throw new InvalidKeyException("point at infinity");
+        final EllipticCurve curve = P256.getCurve();
+        final BigInteger p = ((ECFieldFp) curve.getField()).getP();
+        final BigInteger x = point.getAffineX();
+        final BigInteger y = point.getAffineY();
+        if (x.signum() < 0 || x.compareTo(p) >= 0 || y.signum() < 0 || y.compareTo(p) >= 0) {
+            throw new InvalidKeyException("point not on the curve");
+        }
+        final BigInteger rhs = x.pow(3).add(curve.getA().multiply(x)).add(curve.getB()).mod(p);
+        if (!y.multiply(y).mod(p).equals(rhs)) throw new InvalidKeyException("point not on the curve");
+    }
+
+    static byte[] encrypt(@NonNull final ECPublicKey recipient, @NonNull final byte[] bytes) throws Exception {
+        final KeyPair ephemeral = generateKeyPair();
+        final byte[] point = encodePoint(((ECPublicKey) ephemeral.getPublic()).getW());
+        final byte[] okm = deriveKey(ephemeral.getPrivate(), recipient, point);
+        final Cipher cipher = CipherCache.acquire(Type.EC_1);
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(okm, 0, AES_KEY_SIZE, "AES"),
+                    new GCMParameterSpec(GCM_TAG_BITS, okm, AES_KEY_SIZE, GCM_NONCE_SIZE));
+            final byte[] out = Arrays.copyOf(point, POINT_SIZE + cipher.getOutputSize(bytes.length));
+            final int n = cipher.doFinal(bytes, 0, bytes.length, out, POINT_SIZE);
+            return (POINT_SIZE + n == out.length) ? (out) : (Arrays.copyOf(out, POINT_SIZE + n));
+        } finally {
+            CipherCache.release(Type.EC_1, cipher);
+            Arrays.fill(okm, (byte) 0);
+        }
+    }
+
+    static byte[] decrypt(@NonNull final ECPrivateKey recipient, @NonNull final byte[] bytes) throws Exception {
+        if (bytes.length < POINT_SIZE + GCM_TAG_BITS / 8) throw new IllegalArgumentException("ciphertext too short");
+        final byte[] point = Arrays.copyOf(bytes, POINT_SIZE);
+        final ECPublicKey ephemeral = (ECPublicKey) KeyFactory.getInstance("EC")
+                .generatePublic(new ECPublicKeySpec(decodePoint(point), P256));
+        final byte[] okm = deriveKey(recipient, ephemeral, point);
+        final Cipher cipher = CipherCache.acquire(Type.EC_1);
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(okm, 0, AES_KEY_SIZE, "AES"),
+                    new GCMParameterSpec(GCM_TAG_BITS, okm, AES_KEY_SIZE, GCM_NONCE_SIZE));
+            return cipher.doFinal(bytes, POINT_SIZE, bytes.length - POINT_SIZE);
+        } finally {
+            CipherCache.release(Type.EC_1, cipher);
+            Arrays.fill(okm, (byte) 0);
+        }
+    }
+
+    /**
+     * AES key followed by the GCM nonce
+     */
+    private static byte[] deriveKey(final PrivateKey privateKey, final PublicKey publicKey, final byte[] point)
+            throws Exception {
+        final KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
+        agreement.init(privateKey);
+        agreement.doPhase(publicKey, true);
+        final byte[] secret = agreement.generateSecret();
+        try {
+            return hkdf(point, secret, INFO, AES_KEY_SIZE + GCM_NONCE_SIZE);
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    /**
+     * HKDF-SHA256 (RFC 5869)
+     */
+    static byte[] hkdf(final byte[] salt, @NonNull final byte[] ikm, @NonNull final byte[] info, final int length)
+            throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        final int hashLen = mac.getMacLength();
+        if (length > 255 * hashLen) throw new IllegalArgumentException("output too long");
+        mac.init(new SecretKeySpec((salt == null || salt.length == 0) ? (new byte[hashLen]) : (salt), "HmacSHA256"));
+        final byte[] prk = mac.doFinal(ikm);
+        mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+        Arrays.fill(prk, (byte) 0);
+
+        final byte[] okm = new byte[length];
+        byte[] t = new byte[0];
+        for (int i = 1, off = 0; off < length; i++) {
+            mac.update(t);
+            mac.update(info);
+            mac.update((byte) i);
+            t = mac.doFinal();
+            System.arraycopy(t, 0, okm, off, Math.min(hashLen, length - off));
+            off += hashLen;
+        }
+        Arrays.fill(t, (byte) 0);
+        return okm;
+    }
+
+    private static byte[] encodePoint(final ECPoint point) {
+        final byte[] bytes = new byte[POINT_SIZE];
+        bytes[0] = UNCOMPRESSED;
+        writeField(point.getAffineX(), bytes, 1);
+        writeField(point.getAffineY(), bytes, 1 + FIELD_SIZE);
+        return bytes;
+    }
+
+    private static void writeField(final BigInteger value, final byte[] out, final int off) {
+        final byte[] bytes = value.toByteArray();
+        final int n = Math.min(bytes.length, FIELD_SIZE);
+        System.arraycopy(bytes, bytes.length - n, out, off + FIELD_SIZE - n, n);
+    }
+
+    private static ECPoint decodePoint(final byte[] bytes) throws InvalidKeyException {
+        if (bytes.length != POINT_SIZE || bytes[0] != UNCOMPRESSED) throw new InvalidKeyException("EC point expected");
+        final ECPoint point = new ECPoint(
+                new BigInteger(1, Arrays.copyOfRange(bytes, 1, 1 + FIELD_SIZE)),
+                new BigInteger(1, Arrays.copyOfRange(bytes, 1 + FIELD_SIZE, POINT_SIZE)));
+        checkPoint(point);
+        return point;
+    }
+}
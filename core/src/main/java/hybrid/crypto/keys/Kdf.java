@@ -0,0 +1,347 @@
+package hybrid.crypto.keys;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * password-based key derivation; the algorithm and its parameters are stored in the profile header,
+ * so they can change without breaking existing profiles
+ *
+ * PBKDF2_SHA256: iterations
+ * SCRYPT (RFC 7914, r = 8): memoryKiB = 128 * r * N / 1024, parallelism = p
+ */
+public final class Kdf {
+
+    public enum Algorithm {
+        PBKDF2_SHA256((byte) 1, "pbkdf2"),
+        SCRYPT((byte) 2, "scrypt"),
+        ;
+
+        @Getter private final byte id;
+        @Getter private final String shortName;
+
+        Algorithm(final byte id, final String shortName) {
+            this.id = id;
+            this.shortName = shortName;
+        }
+
+        public static Algorithm byId(final byte id) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.id == id) return algorithm;
+            }
+            throw new IllegalArgumentException("unknown KDF " + id);
+        }
+
+        public static Algorithm byShortName(@NonNull final String shortName) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.shortName.equalsIgnoreCase(shortName)) return algorithm;
+            }
+            throw new IllegalArgumentException("unknown KDF " + shortName);
+        }
+    }
+
+    private static final int SCRYPT_R = 8;
+    private static final int SCRYPT_BLOCK_SIZE = 128 * SCRYPT_R;
+
+    /* limits for parameters read from a file, so a crafted header cannot exhaust the machine;
+     * the scrypt memory is also checked against the heap before anything is allocated */
+    private static final int MIN_PBKDF2_ITERATIONS = 10_000;
+    private static final int MAX_PBKDF2_ITERATIONS = 100_000_000;
+    private static final int MIN_SCRYPT_MEMORY_KIB = 1024;
+    private static final int MAX_SCRYPT_MEMORY_KIB = 256 * 1024;
+    private static final int MAX_PARALLELISM = 16;
+
+    private static final int DEFAULT_SCRYPT_MEMORY_KIB = 64 * 1024;
+    /* the weakest scrypt setting defaults() and calibrate() pick; below it they use PBKDF2 */
+    private static final int MIN_DEFAULT_SCRYPT_MEMORY_KIB = 16 * 1024;
+
+    /**
+     * profiles without KDF parameters in their header
+     */
+    public static final Kdf LEGACY = new Kdf(Algorithm.PBKDF2_SHA256, 65536, 0, 1);
+
+    @Getter private final Algorithm algorithm;
+    @Getter private final int iterations;
+    @Getter private final int memoryKiB;
+    @Getter private final int parallelism;
+
+    private Kdf(final Algorithm algorithm, final int iterations, final int memoryKiB, final int parallelism) {
+        this.algorithm = algorithm;
+        this.iterations = iterations;
+        this.memoryKiB = memoryKiB;
+        this.parallelism = parallelism;
+    }
+
+    public static Kdf of(@NonNull final Algorithm algorithm,
+                         final int iterations,
+                         final int memoryKiB,
+                         final int parallelism) {
+        switch (algorithm) {
+            case PBKDF2_SHA256:
+                if (iterations < MIN_PBKDF2_ITERATIONS || iterations > MAX_PBKDF2_ITERATIONS
+                        || memoryKiB != 0 || parallelism != 1) {
+                    throw new IllegalArgumentException("invalid PBKDF2 parameters");
+                }
+                break;
+            case SCRYPT:
+                if (iterations != 1 || memoryKiB < MIN_SCRYPT_MEMORY_KIB || memoryKiB > MAX_SCRYPT_MEMORY_KIB
+                        || Integer.bitCount(memoryKiB) != 1 || parallelism < 1 || parallelism > MAX_PARALLELISM) {
+                    throw new IllegalArgumentException("invalid scrypt parameters");
+                }
+                if (memoryKiB > Runtime.getRuntime().maxMemory() / 1024 / 2) {
+                    throw new IllegalArgumentException("scrypt memory exceeds half of the heap");
+                }
+                break;
+        }
+        return new Kdf(algorithm, iterations, memoryKiB, parallelism);
+    }
+
+    /**
+     * new profiles
+     */
+    public static Kdf defaults() {
+        return defaults(Algorithm.SCRYPT);
+    }
+
+    /**
+     * scrypt: 64 MiB, less on a heap below 256 MiB; PBKDF2 when the heap cannot spare 16 MiB
+     */
+    public static Kdf defaults(@NonNull final Algorithm algorithm) {
+        return defaults(algorithm, Runtime.getRuntime().maxMemory());
+    }
+
+    static Kdf defaults(@NonNull final Algorithm algorithm, final long maxHeapBytes) {
+        switch (algorithm) {
+            case PBKDF2_SHA256:
+                return of(algorithm, 600_000, 0, 1);
+            case SCRYPT:
+            default: {
+                final int memoryKiB = Integer.highestOneBit(
+                        (int) Math.min(DEFAULT_SCRYPT_MEMORY_KIB, maxScryptMemoryKiB(maxHeapBytes)));
+                if (memoryKiB < MIN_DEFAULT_SCRYPT_MEMORY_KIB) return defaults(Algorithm.PBKDF2_SHA256);
+                return of(Algorithm.SCRYPT, 1, memoryKiB, 1);
+            }
+        }
+    }
+
+    /**
+     * a quarter of the heap, so that deriving leaves room for the rest of the application
+     */
+    private static long maxScryptMemoryKiB(final long maxHeapBytes) {
+        return Math.min(MAX_SCRYPT_MEMORY_KIB, maxHeapBytes / 1024 / 4);
+    }
+
+    public byte[] derive(@NonNull final String password, @NonNull final byte[] salt, final int keyBytes)
+            throws Exception {
+        switch (algorithm) {
+            case PBKDF2_SHA256: {
+                SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+                /* PBEKeySpec(char[] password, byte[] salt, int iterationCount, int keyLength) */
+                final PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyBytes * 8);
+                try {
+                    final SecretKey tmp = factory.generateSecret(spec);
+                    return tmp.getEncoded();
+                } finally {
+                    spec.clearPassword();
+                }
+            }
+            case SCRYPT:
+            default: {
+                final byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+                try {
+                    return scrypt(passwordBytes, salt, memoryKiB * 1024 / SCRYPT_BLOCK_SIZE,
+                            parallelism, keyBytes);
+                } finally {
+                    Arrays.fill(passwordBytes, (byte) 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * picks parameters for which one derivation takes about targetMillis on this machine,
+     * never weaker than the legacy PBKDF2 setting or 16 MiB of scrypt memory (PBKDF2 when the heap is too small)
+     */
+    public static Kdf calibrate(@NonNull final Algorithm algorithm, final long targetMillis) throws Exception {
+        switch (algorithm) {
+            case PBKDF2_SHA256: {
+                final Kdf probe = of(algorithm, 50_000, 0, 1);
+                long millis = Long.MAX_VALUE;
+                for (int i = 0; i < 5; i++) {
+                    millis = Math.min(millis, probe.measureMillis());
+                }
+                final double msPerIteration = Math.max(millis, 1) / (double) probe.iterations;
+                final long iterations = Math.round(targetMillis / msPerIteration / 1000) * 1000;
+                return of(algorithm, (int) Math.max(LEGACY.iterations,
+                        Math.min(iterations, MAX_PBKDF2_ITERATIONS)), 0, 1);
+            }
+            case SCRYPT:
+            default: {
+                final long maxMemoryKiB = maxScryptMemoryKiB(Runtime.getRuntime().maxMemory());
+                if (maxMemoryKiB < MIN_DEFAULT_SCRYPT_MEMORY_KIB) return calibrate(Algorithm.PBKDF2_SHA256, targetMillis);
+                Kdf kdf = of(Algorithm.SCRYPT, 1, MIN_DEFAULT_SCRYPT_MEMORY_KIB, 1);
+                kdf.measureMillis();
+                long millis = kdf.measureMillis();
+                while (millis < targetMillis && kdf.memoryKiB * 2L <= maxMemoryKiB) {
+                    final Kdf next = of(Algorithm.SCRYPT, 1, kdf.memoryKiB * 2, 1);
+                    final long nextMillis = next.measureMillis();
+                    if (nextMillis - targetMillis > targetMillis - millis) break;
+                    kdf = next;
+                    millis = nextMillis;
+                }
+                return kdf;
+            }
+        }
+    }
+
+    public long measureMillis() throws Exception {
+        final long start = System.nanoTime();
+        derive("calibration", new byte[16], 32);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        switch (algorithm) {
+            case PBKDF2_SHA256:
+                return String.format("pbkdf2 (HMAC-SHA256, %d iterations)", iterations);
+            case SCRYPT:
+            default:
+                return String.format("scrypt (N=%d, r=%d, p=%d, %d MiB)",
+                        memoryKiB * 1024 / SCRYPT_BLOCK_SIZE, SCRYPT_R, parallelism, memoryKiB / 1024);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final Kdf kdf = (Kdf) o;
+        return algorithm == kdf.algorithm && iterations == kdf.iterations
+                && memoryKiB == kdf.memoryKiB && parallelism == kdf.parallelism;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((algorithm.hashCode() * 31 + iterations) * 31 + memoryKiB) * 31 + parallelism;
+    }
+
+    /* * * * * * * * * * * * * * * * scrypt (RFC 7914) * * * * * * * * * * * * * * * */
+
+    static byte[] scrypt(@NonNull final byte[] password, @NonNull final byte[] salt,
+                         final int n, final int p, final int keyBytes) throws Exception {
+        if (password.length == 0) throw new IllegalArgumentException("empty password");
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(password, "HmacSHA256"));
+
+        final byte[] b = pbkdf2Sha256SingleIteration(mac, salt, p * SCRYPT_BLOCK_SIZE);
+        final int[] x = new int[32 * SCRYPT_R];
+        final int[] y = new int[32 * SCRYPT_R];
+        final int[] v = new int[32 * SCRYPT_R * n];
+        for (int i = 0; i < p; i++) {
+            roMix(b, i * SCRYPT_BLOCK_SIZE, n, x, y, v);
+        }
+        Arrays.fill(v, 0);
+        final byte[] derived = pbkdf2Sha256SingleIteration(mac, b, keyBytes);
+        Arrays.fill(b, (byte) 0);
+        return derived;
+    }
+
+    private static byte[] pbkdf2Sha256SingleIteration(final Mac mac, final byte[] salt, final int length) {
+        final byte[] out = new byte[length];
+        final byte[] counter = new byte[4];
+        for (int block = 1, off = 0; off < length; block++) {
+            counter[0] = (byte) (block >>> 24);
+            counter[1] = (byte) (block >>> 16);
+            counter[2] = (byte) (block >>> 8);
+            counter[3] = (byte) block;
+            mac.update(salt);
+            mac.update(counter);
+            final byte[] t = mac.doFinal();
+            final int n = Math.min(t.length, length - off);
+            System.arraycopy(t, 0, out, off, n);
+            off += n;
+        }
+        return out;
+    }
+
+    private static void roMix(final byte[] b, final int off, final int n,
+                              final int[] x, final int[] y, final int[] v) {
+        final int words = x.length;
+        for (int i = 0; i < words; i++) {
+            final int k = off + i * 4;
+            x[i] = (b[k] & 0xff) | (b[k + 1] & 0xff) << 8 | (b[k + 2] & 0xff) << 16 | (b[k + 3] & 0xff) << 24;
+        }
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(x, 0, v, i * words, words);
+            blockMix(x, y);
+        }
+        for (int i = 0; i < n; i++) {
+            final int j = x[words - 16] & (n - 1);
+            for (int k = 0; k < words; k++) {
+                x[k] ^= v[j * words + k];
+            }
+            blockMix(x, y);
+        }
+        for (int i = 0; i < words; i++) {
+            final int k = off + i * 4;
+            b[k] = (byte) x[i];
+            b[k + 1] = (byte) (x[i] >>> 8);
+            b[k + 2] = (byte) (x[i] >>> 16);
+            b[k + 3] = (byte) (x[i] >>> 24);
+        }
+    }
+
+    /**
+     * b = BlockMix(b), y is scratch space of the same size
+     */
+    private static void blockMix(final int[] b, final int[] y) {
+        final int[] x = new int[16];
+        final int blocks = 2 * SCRYPT_R;
+        System.arraycopy(b, (blocks - 1) * 16, x, 0, 16);
+        for (int i = 0; i < blocks; i++) {
+            for (int k = 0; k < 16; k++) {
+                x[k] ^= b[i * 16 + k];
+            }
+            salsa20_8(x);
+            // even blocks go to the first half, odd blocks to the second
+            System.arraycopy(x, 0, y, ((i & 1) * SCRYPT_R + (i >>> 1)) * 16, 16);
+        }
+        System.arraycopy(y, 0, b, 0, b.length);
+    }
+
+    private static void salsa20_8(final int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        for (int i = 0; i < 8; i += 2) {
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);   x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);  x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);    x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);  x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);  x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);  x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);  x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);  x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);    x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);   x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);    x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);   x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);  x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);  x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7); x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13); x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        b[0] += x0;   b[1] += x1;   b[2] += x2;   b[3] += x3;
+        b[4] += x4;   b[5] += x5;   b[6] += x6;   b[7] += x7;
+        b[8] += x8;   b[9] += x9;   b[10] += x10; b[11] += x11;
+        b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+}
@@ -0,0 +1,182 @@
+package hybrid.crypto.keys;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static hybrid.crypto.algorithms.Utils.randAlphabeticStr;
+
+/**
+ * asymmetric key pairs generated ahead of time: a bounded queue per pooled Type (RSA_1, RSA_2, EC_1),
+ * refilled by low-priority daemon threads whenever a pair is taken; off until start() is called
+ *
+ * take() never waits for the background threads: an empty (or stopped) pool, or a type that is not pooled,
+ * generates in the calling thread
+ */
+public final class KeyPairPool {
+    private static final int KEY_LABEL_LENGTH = 32;
+
+    private static volatile KeyPairPool instance;
+
+    /* counted whether or not the pool is running */
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    public static class Stats {
+        @Getter private final Map<Type, Integer> depth;
+        @Getter private final int capacity;
+        @Getter private final long hits;
+        @Getter private final long misses;
+        @Getter private final long generated;
+        @Getter private final long meanRefillMillis;
+        @Getter private final long lastRefillMillis;
+
+        private Stats(Map<Type, Integer> depth, int capacity, long hits, long misses,
+                      long generated, long meanRefillMillis, long lastRefillMillis) {
+            this.depth = Collections.unmodifiableMap(depth);
+            this.capacity = capacity;
+            this.hits = hits;
+            this.misses = misses;
+            this.generated = generated;
+            this.meanRefillMillis = meanRefillMillis;
+            this.lastRefillMillis = lastRefillMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("key pairs ready %s of %d, %d taken from the pool, %d generated on demand, " +
+                            "%d generated in the background (mean %d ms, last %d ms)",
+                    depth, capacity, hits, misses, generated, meanRefillMillis, lastRefillMillis);
+        }
+    }
+
+    private final int capacity;
+    private final Map<Type, BlockingQueue<MyKeyPair>> pools = new EnumMap<>(Type.class);
+    private final Map<Type, AtomicInteger> pending = new EnumMap<>(Type.class);
+    private final ExecutorService executor;
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+    private volatile long lastGenerationNanos;
+
+    private KeyPairPool(final Set<Type> types, final int capacity, final int threads) {
+        this.capacity = capacity;
+        for (final Type type : types) {
+            pools.put(type, new ArrayBlockingQueue<>(capacity));
+            pending.put(type, new AtomicInteger());
+        }
+        final AtomicInteger threadNo = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "key-pair-pool-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * keeps up to capacityPerType pairs of each of the given asymmetric types ready, generated on the given
+     * number of threads; replaces a running pool
+     */
+    public static synchronized void start(@NonNull final Set<Type> types,
+                                          final int capacityPerType, final int threads) {
+        if (types.isEmpty()) throw new IllegalArgumentException("no key type to pool");
+        for (final Type type : types) {
+            if (!type.isAsymmetric()) throw new IllegalArgumentException("asymmetric key type expected");
+        }
+        if (capacityPerType < 1) throw new IllegalArgumentException("capacity < 1");
+        if (threads < 1) throw new IllegalArgumentException("threads < 1");
+        stop();
+        final KeyPairPool pool = new KeyPairPool(types, capacityPerType, threads);
+        instance = pool;
+        for (final Type type : pool.pools.keySet()) {
+            pool.refill(type);
+        }
+    }
+
+    /**
+     * pairs still in the pool are discarded
+     */
+    public static synchronized void stop() {
+        final KeyPairPool pool = instance;
+        instance = null;
+        if (pool != null) {
+            pool.executor.shutdownNow();
+            pool.pools.values().forEach(BlockingQueue::clear);
+        }
+    }
+
+    public static boolean isRunning() {
+        return instance != null;
+    }
+
+    /**
+     * a pair from the pool, or a new one when the pool is empty, not running or does not pool the type
+     */
+    public static MyKeyPair take(@NonNull final Type type) throws Exception {
+        if (!type.isAsymmetric()) throw new IllegalArgumentException("asymmetric key type expected");
+        final KeyPairPool pool = instance;
+        if (pool != null && pool.pools.containsKey(type)) {
+            final MyKeyPair keyPair = pool.pools.get(type).poll();
+            pool.refill(type);
+            if (keyPair != null) {
+                hits.incrementAndGet();
+                return keyPair;
+            }
+        }
+        misses.incrementAndGet();
+        return AsymmetricKeys.generatePair(type, randAlphabeticStr(KEY_LABEL_LENGTH));
+    }
+
+    public static Stats stats() {
+        final KeyPairPool pool = instance;
+        final Map<Type, Integer> depth = new EnumMap<>(Type.class);
+        if (pool == null) {
+            return new Stats(depth, 0, hits.get(), misses.get(), 0, 0, 0);
+        }
+        pool.pools.forEach((type, queue) -> depth.put(type, queue.size()));
+        final long generated = pool.generated.get();
+        return new Stats(depth, pool.capacity, hits.get(), misses.get(), generated,
+                (generated == 0) ? (0) : (pool.generationNanos.get() / generated / 1_000_000),
+                pool.lastGenerationNanos / 1_000_000);
+    }
+
+    private void refill(final Type type) {
+        final BlockingQueue<MyKeyPair> queue = pools.get(type);
+        final AtomicInteger inFlight = pending.get(type);
+        while (true) {
+            final int n = inFlight.get();
+            if (queue.size() + n >= capacity) return;
+            if (!inFlight.compareAndSet(n, n + 1)) continue;
+            try {
+                executor.execute(() -> generate(type));
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void generate(final Type type) {
+        try {
+            final long start = System.nanoTime();
+            final MyKeyPair keyPair = AsymmetricKeys.generatePair(type, randAlphabeticStr(KEY_LABEL_LENGTH));
+            final long nanos = System.nanoTime() - start;
+            generationNanos.addAndGet(nanos);
+            lastGenerationNanos = nanos;
+            generated.incrementAndGet();
+            pools.get(type).offer(keyPair);
+        } catch (Exception e) {
+            // the next take() generates in the calling thread
+        } finally {
+            pending.get(type).decrementAndGet();
+        }
+        if (!executor.isShutdown()) refill(type);
+    }
+}
@@ -0,0 +1,136 @@
+package hybrid.crypto.keys;
+
+import lombok.NonNull;
+
+import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static hybrid.crypto.algorithms.Utils.randAlphabeticStr;
+import static hybrid.crypto.algorithms.Utils.secureRandom;
+
+public abstract class Keys implements Serializable {
+    protected static final long serialVersionUID = 62L;
+    private final static int ID_BYTE_ARR_LENGTH = 12;
+    public final static String KEY_EXT = ".mykey";
+    public final static int MIN_KEY_LABEL_LENGTH = 5;
+    public final static int MAX_LABEL_LENGTH = 30;
+
+    /* not final only so that SerializedKey.readResolve() can restore them */
+    protected byte[] id;
+    protected final byte typeId;
+    protected String keyLabel;
+
+    public abstract byte[] encrypt(byte[] bytes) throws Exception;
+    public abstract byte[] decrypt(byte[] bytes) throws Exception;
+
+    /**
+     * explicit encoding, no Java serialization:
+     * type ID, then the raw key (AES) or PUBLIC + X.509 / PRIVATE + PKCS#8 (RSA)
+     */
+    public abstract byte[] toBytes();
+
+    static final byte PUBLIC = 0;
+    static final byte PRIVATE = 1;
+
+    protected Keys(@NonNull String keyLabel, @NonNull Type type) {
+        this.keyLabel = keyLabel;
+        this.typeId = type.getTypeId();
+        this.id = new byte[ID_BYTE_ARR_LENGTH];
+        secureRandom.nextBytes(this.id);
+    }
+
+    String newKeyFileNameWithExt() {
+        return (keyLabel + "_" + getType().getShortName() + "_"
+                + randAlphabeticStr(8) + KEY_EXT);
+    }
+
+    String uniqueAbsolutePath(@NonNull Path dir) {
+        while (true) {
+            final File file = Paths.get(dir.toString(), newKeyFileNameWithExt()).toFile();
+            if(!file.exists()) {
+                return file.getAbsolutePath();
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Keys keys = (Keys) o;
+        return Arrays.equals(this.id, keys.id);
+    }
+
+    public static Keys fromBytes(@NonNull final byte[] bytes) throws Exception {
+        if (bytes.length < 2) throw new IllegalArgumentException("key expected");
+        final Type type = Type.typeIdByteToEnum(bytes[0]);
+        if (type.isSymmetric()) {
+            return AesKey.fromEncoded(type, Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        final byte[] encoded = Arrays.copyOfRange(bytes, 2, bytes.length);
+        switch (bytes[1]) {
+            case PUBLIC:
+                return PublicRsaKey.fromEncoded(type, type.getShortName(), encoded);
+            case PRIVATE:
+                return PrivateRsaKey.fromEncoded(type, type.getShortName(), encoded);
+            default:
+                throw new IllegalArgumentException("key expected");
+        }
+    }
+
+    public static <T extends Keys> T fromBytes(@NonNull final byte[] bytes, @NonNull final Class<T> keyClass)
+            throws Exception {
+        final Keys key = fromBytes(bytes);
+        if (!keyClass.isInstance(key)) throw new IllegalArgumentException(keyClass.getSimpleName() + " expected");
+        return keyClass.cast(key);
+    }
+
+    /**
+     * keys are serialized (profile snapshots) in their explicit encoding, with their label and ID;
+     * profiles saved before still load through the default field-by-field form
+     */
+    protected final Object writeReplace() {
+        return new SerializedKey(toBytes(), keyLabel, id);
+    }
+
+    private static final class SerializedKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final byte[] bytes;
+        private final String keyLabel;
+        private final byte[] id;
+
+        private SerializedKey(final byte[] bytes, final String keyLabel, final byte[] id) {
+            this.bytes = bytes;
+            this.keyLabel = keyLabel;
+            this.id = id;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            final Keys key;
+            try {
+                key = fromBytes(bytes);
+            } catch (Exception e) {
+                throw new InvalidObjectException("key corrupted");
+            }
+            if (keyLabel != null) key.keyLabel = keyLabel;
+            if (id != null) {
+                if (id.length != ID_BYTE_ARR_LENGTH) throw new InvalidObjectException("key corrupted");
+                key.id = id.clone();
+            }
+            return key;
+        }
+    }
+
+    public Type getType() {
+        return Type.typeIdByteToEnum(this.typeId);
+    }
+
+    public String getKeyLabel() {
+        return keyLabel;
+    }
+}
@@ -0,0 +1,89 @@
+package hybrid.crypto.keys;
+
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.crypto.Cipher;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+
+/**
+ * private key of any asymmetric Type - RSA, or P-256 for EC_1 (the name predates EC_1)
+ */
+public class PrivateRsaKey extends AsymmetricKeys {
+    private static final long serialVersionUID = 7276867324865173390L;
+
+    @NonNull @Getter
+    private final PrivateKey privateKey;
+
+    @Override
+    public boolean isPublic() {
+        return false;
+    }
+
+    @Override
+    public boolean isPrivate() {
+        return true;
+    }
+
+    PrivateRsaKey(@NonNull Type type, @NonNull String keyLabel, @NonNull PrivateKey privateKey) throws Exception {
+        super(keyLabel, type);
+        this.privateKey = privateKey;
+    }
+
+    /**
+     * PKCS#8
+     */
+    static PrivateRsaKey fromEncoded(@NonNull final Type type,
+                                     @NonNull final String keyLabel,
+                                     @NonNull final byte[] encoded) throws Exception {
+        if (!type.isAsymmetric()) throw new IllegalArgumentException("asymmetric key type expected");
+        final PrivateKey privateKey = KeyFactory.getInstance(type.getKeyAlgorithm())
+                .generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        checkKey(type, privateKey);
+        return new PrivateRsaKey(type, keyLabel, privateKey);
+    }
+
+    @Override
+    public byte[] toBytes() {
+        final byte[] encoded = privateKey.getEncoded();
+        final byte[] bytes = new byte[2 + encoded.length];
+        bytes[0] = typeId;
+        bytes[1] = PRIVATE;
+        System.arraycopy(encoded, 0, bytes, 2, encoded.length);
+        return bytes;
+    }
+
+    @Override
+    public byte[] encrypt(byte[] bytes) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] decrypt(byte[] bytes) throws Exception {
+        final long start = Metrics.start();
+        try {
+            final byte[] dec = unwrap(bytes);
+            Metrics.record(Stage.KEY_UNWRAP, start, bytes.length);
+            return dec;
+        } catch (Exception e) {
+            Metrics.failed(Stage.KEY_UNWRAP, start);
+            throw e;
+        }
+    }
+
+    private byte[] unwrap(byte[] bytes) throws Exception {
+        if (getType() == Type.EC_1) return Ecies.decrypt((ECPrivateKey) privateKey, bytes);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            return cipher.doFinal(bytes);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+}
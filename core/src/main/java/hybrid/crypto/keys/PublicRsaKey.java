@@ -0,0 +1,97 @@
+package hybrid.crypto.keys;
+
+import hybrid.crypto.metrics.Metrics;
+import hybrid.crypto.metrics.Stage;
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.crypto.Cipher;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * public key of any asymmetric Type - RSA, or P-256 for EC_1 (the name predates EC_1)
+ */
+public class PublicRsaKey extends AsymmetricKeys {
+    private static final long serialVersionUID = 4943823580841284769L;
+
+    @NonNull
+    @Getter
+    private final PublicKey publicKey;
+
+    @Override
+    public boolean isPublic() {
+        return true;
+    }
+
+    @Override
+    public boolean isPrivate() {
+        return false;
+    }
+
+    PublicRsaKey(@NonNull Type type, @NonNull String keyLabel, @NonNull PublicKey publicKey) throws Exception {
+        super(keyLabel, type);
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * X.509 SubjectPublicKeyInfo, as returned by getEncoded()
+     */
+    public static PublicRsaKey fromEncoded(@NonNull final Type type,
+                                           @NonNull final String keyLabel,
+                                           @NonNull final byte[] encoded) throws Exception {
+        if (!type.isAsymmetric()) throw new IllegalArgumentException("asymmetric key type expected");
+        final PublicKey publicKey = KeyFactory.getInstance(type.getKeyAlgorithm())
+                .generatePublic(new X509EncodedKeySpec(encoded));
+        checkKey(type, publicKey);
+        return new PublicRsaKey(type, keyLabel, publicKey);
+    }
+
+    /**
+     * X.509 SubjectPublicKeyInfo
+     */
+    public byte[] getEncoded() {
+        return publicKey.getEncoded();
+    }
+
+    @Override
+    public byte[] toBytes() {
+        final byte[] encoded = getEncoded();
+        final byte[] bytes = new byte[2 + encoded.length];
+        bytes[0] = typeId;
+        bytes[1] = PUBLIC;
+        System.arraycopy(encoded, 0, bytes, 2, encoded.length);
+        return bytes;
+    }
+
+    @Override
+    public byte[] encrypt(byte[] bytes) throws Exception {
+        final long start = Metrics.start();
+        try {
+            final byte[] enc = wrap(bytes);
+            Metrics.record(Stage.KEY_WRAP, start, bytes.length);
+            return enc;
+        } catch (Exception e) {
+            Metrics.failed(Stage.KEY_WRAP, start);
+            throw e;
+        }
+    }
+
+    private byte[] wrap(byte[] bytes) throws Exception {
+        if (getType() == Type.EC_1) return Ecies.encrypt((ECPublicKey) publicKey, bytes);
+        final Cipher cipher = CipherCache.acquire(getType());
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+            return cipher.doFinal(bytes);
+        } finally {
+            CipherCache.release(getType(), cipher);
+        }
+    }
+
+    @Override
+    public byte[] decrypt(byte[] bytes) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+}
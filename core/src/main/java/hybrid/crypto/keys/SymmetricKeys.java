@@ -0,0 +1,49 @@
+package hybrid.crypto.keys;
+
+import hybrid.crypto.algorithms.Progress;
+import lombok.NonNull;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public abstract class SymmetricKeys extends Keys {
+    /**
+     * the value computed for the class as released in 93a42be, before it declared one;
+     * profiles and messages written by that release carry it
+     */
+    private static final long serialVersionUID = -3288940400975849797L;
+
+    public SymmetricKeys(@NonNull String keyLabel, @NonNull Type type) {
+        super(keyLabel, type);
+    }
+
+    public abstract void encrypt(InputStream in, OutputStream out) throws Exception;
+    public abstract void decrypt(InputStream in, OutputStream out) throws Exception;
+
+    /**
+     * same output as the stream versions, through direct buffers instead of heap byte[]
+     */
+    public void encrypt(ReadableByteChannel in, WritableByteChannel out) throws Exception {
+        encrypt(in, out, Progress.NONE);
+    }
+
+    public void decrypt(ReadableByteChannel in, WritableByteChannel out) throws Exception {
+        decrypt(in, out, Progress.NONE);
+    }
+
+    /**
+     * the input bytes are reported chunk by chunk; a cancelled progress stops the loop with a CancellationException
+     */
+    public abstract void encrypt(ReadableByteChannel in, WritableByteChannel out, Progress progress) throws Exception;
+    public abstract void decrypt(ReadableByteChannel in, WritableByteChannel out, Progress progress) throws Exception;
+
+    public static SymmetricKeys generateKey(@NonNull Type type, @NonNull String keyLabel) throws Exception {
+        if(type.isAsymmetric()) return null;
+        if(type == Type.AES_1 || type == Type.AES_2) {
+            return new AesKey(type, keyLabel);
+        }
+        return null;
+    }
+}
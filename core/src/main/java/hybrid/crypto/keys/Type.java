@@ -6,6 +6,8 @@ import lombok.Getter;
  * RSA-4096 (OAEP & SHA-512 & MGF1Padding)
  * RSA-4096 (PKCS1Padding)
  * AES-256 (CBC & PKCS5Padding)
+ * AES-256 (GCM)
+ * ECDH P-256 (HKDF-SHA256 & AES-256-GCM)
  */
 public enum Type {
 
@@ -14,7 +16,7 @@ public enum Type {
      */
     RSA_1("RSA/ECB/OAEPWithSHA-512AndMGF1Padding",
             "RSA-4096 (OAEP & SHA-512 & MGF1Padding)",
-            "RSA-4096",
+            "RSA-4096", "RSA",
             4096, false, true,
             (byte) 1,
             380,
@@ -25,7 +27,7 @@ public enum Type {
      */
     RSA_2("RSA/ECB/PKCS1Padding",
             "RSA-4096 (PKCS1Padding)",
-            "RSA-4096",
+            "RSA-4096", "RSA",
             4096, false, true,
             (byte) 2,
             380,
@@ -36,11 +38,34 @@ public enum Type {
      */
     AES_1("AES/CBC/PKCS5Padding",
             "AES-256 (CBC & PKCS5Padding)",
-            "AES-256",
+            "AES-256", "AES",
             256, true, false,
             (byte) 3,
-            121 * 1024 * 1024,
-            171 * 1024 * 1024),
+            Long.MAX_VALUE,
+            Long.MAX_VALUE),
+
+    /**
+     * AES-256 (GCM), authenticated; streams are sealed in 64 KiB chunks
+     */
+    AES_2("AES/GCM/NoPadding",
+            "AES-256 (GCM)",
+            "AES-256-GCM", "AES",
+            256, true, false,
+            (byte) 4,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE),
+
+    /**
+     * ECDH P-256 (HKDF-SHA256 & AES-256-GCM): every encryption agrees a key with a new ephemeral pair,
+     * the cipher is the one applied with the derived key
+     */
+    EC_1("AES/GCM/NoPadding",
+            "ECDH P-256 (HKDF-SHA256 & AES-256-GCM)",
+            "EC-P256", "EC",
+            256, false, true,
+            (byte) 5,
+            Long.MAX_VALUE,
+            Long.MAX_VALUE),
 
     ;
 
@@ -53,6 +78,12 @@ public enum Type {
     @Getter
     private final String shortName;
 
+    /**
+     * KeyFactory / KeyPairGenerator / SecretKeySpec algorithm
+     */
+    @Getter
+    private final String keyAlgorithm;
+
     @Getter
     private final int keySize;
 
@@ -83,11 +114,12 @@ public enum Type {
         throw new IllegalArgumentException();
     }
 
-    private Type(String cipherType, String name, String shortName, int keySize,
+    private Type(String cipherType, String name, String shortName, String keyAlgorithm, int keySize,
                  boolean symmetric, boolean asymmetric, byte typeId, long maxDataSizeEnc, long maxDataSizeDec) {
         this.cipherType = cipherType;
         this.name = name;
         this.shortName = shortName;
+        this.keyAlgorithm = keyAlgorithm;
         this.keySize = keySize;
         this.symmetric = symmetric;
         this.asymmetric = asymmetric;
@@ -0,0 +1,73 @@
+package hybrid.crypto.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * the JFR events of the application (category "Hybrid Crypto"), shown next to GC and I/O in a recording;
+ * the failure is the exception class only - messages may name files
+ */
+@Category("Hybrid Crypto")
+abstract class CryptoEvent extends Event {
+    static final String SUCCEEDED = "succeeded";
+    static final String FAILED = "failed";
+    static final String CANCELLED = "cancelled";
+
+    @Label("Payload Size")
+    @DataAmount
+    long payloadSize;
+
+    @Label("Key Type")
+    @Description("the Type name, e.g. RSA_1 (OAEP) or RSA_2 (PKCS#1), which share a short name")
+    String keyType;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Failure")
+    String failure;
+
+    @Name("hybrid.crypto.ProfileLoad")
+    @Label("Profile Load")
+    @Description("Database.decryptDatabaseAndLoad: key derivation, reading and decrypting the profile; "
+            + "payload: profile file, key type: profile record key")
+    static final class ProfileLoad extends CryptoEvent {
+    }
+
+    @Name("hybrid.crypto.ProfileSave")
+    @Label("Profile Save")
+    @Description("Database.encryptAndSaveDatabase: key derivation, encrypting and writing the whole profile; "
+            + "payload: profile file, key type: profile record key")
+    static final class ProfileSave extends CryptoEvent {
+    }
+
+    @Name("hybrid.crypto.MessageEncrypt")
+    @Label("Message Encrypt")
+    @Description("Message.encryptAndSaveToJson and encryptAndSaveToContainer (.hcm); "
+            + "payload: plaintext file, key type: (first) receiver's key")
+    static final class MessageEncrypt extends CryptoEvent {
+    }
+
+    @Name("hybrid.crypto.MessageDecrypt")
+    @Label("Message Decrypt")
+    @Description("Message.recreateFileFromJson and recreateFileFromContainer (.hcm); "
+            + "payload: JSON or container file, key type: receiver's key")
+    static final class MessageDecrypt extends CryptoEvent {
+    }
+
+    @Name("hybrid.crypto.CardRead")
+    @Label("Card Read")
+    @Description("Card.fromJsonFile; payload: card file, key type: the card's key")
+    static final class CardRead extends CryptoEvent {
+    }
+
+    @Name("hybrid.crypto.KeyGeneration")
+    @Label("Key Pair Generation")
+    @Description("AsymmetricKeys.generatePair; payload: encoded public key")
+    static final class KeyGeneration extends CryptoEvent {
+    }
+}
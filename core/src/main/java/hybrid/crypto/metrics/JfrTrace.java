@@ -0,0 +1,59 @@
+package hybrid.crypto.metrics;
+
+import hybrid.crypto.keys.Type;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * only loaded when the JVM has jdk.jfr
+ */
+final class JfrTrace extends Trace {
+    private final CryptoEvent event;
+
+    private JfrTrace(final CryptoEvent event) {
+        this.event = event;
+    }
+
+    static Trace start(final Kind kind) {
+        final CryptoEvent event = newEvent(kind);
+        if (!event.isEnabled()) return NONE;
+        event.begin();
+        return new JfrTrace(event);
+    }
+
+    private static CryptoEvent newEvent(final Kind kind) {
+        switch (kind) {
+            case PROFILE_LOAD:
+                return new CryptoEvent.ProfileLoad();
+            case PROFILE_SAVE:
+                return new CryptoEvent.ProfileSave();
+            case MESSAGE_ENCRYPT:
+                return new CryptoEvent.MessageEncrypt();
+            case MESSAGE_DECRYPT:
+                return new CryptoEvent.MessageDecrypt();
+            case CARD_READ:
+                return new CryptoEvent.CardRead();
+            case KEY_GENERATION:
+                return new CryptoEvent.KeyGeneration();
+            default:
+                throw new IllegalArgumentException(kind.name());
+        }
+    }
+
+    @Override
+    public void end(final long payloadSize, final Type type, final Throwable failure) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.payloadSize = payloadSize;
+        event.keyType = (type != null) ? (type.name()) : (null);
+        if (failure == null) {
+            event.outcome = CryptoEvent.SUCCEEDED;
+        } else {
+            event.outcome = (failure instanceof CancellationException)
+                    ? (CryptoEvent.CANCELLED)
+                    : (CryptoEvent.FAILED);
+            event.failure = failure.getClass().getName();
+        }
+        event.commit();
+    }
+}
@@ -0,0 +1,28 @@
+package hybrid.crypto.metrics;
+
+import java.util.Map;
+
+/**
+ * KeyPairPool.stats() as seen over JMX (hybrid.crypto:type=KeyPairPool); all zero but the hits and
+ * misses while the pool is stopped
+ */
+public interface KeyPairPoolMXBean {
+    boolean isRunning();
+
+    /**
+     * key pairs ready, by key Type name (RSA_1 and RSA_2 share a short name)
+     */
+    Map<String, Integer> getDepth();
+
+    int getCapacity();
+
+    long getHits();
+
+    long getMisses();
+
+    long getGenerated();
+
+    long getMeanRefillMillis();
+
+    long getLastRefillMillis();
+}
@@ -0,0 +1,54 @@
+package hybrid.crypto.metrics;
+
+import hybrid.crypto.keys.KeyPairPool;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * reads a fresh KeyPairPool.stats() for every attribute
+ */
+final class KeyPairPoolMetrics implements KeyPairPoolMXBean {
+
+    @Override
+    public boolean isRunning() {
+        return KeyPairPool.isRunning();
+    }
+
+    @Override
+    public Map<String, Integer> getDepth() {
+        final Map<String, Integer> depth = new TreeMap<>();
+        KeyPairPool.stats().getDepth().forEach((type, n) -> depth.put(type.name(), n));
+        return depth;
+    }
+
+    @Override
+    public int getCapacity() {
+        return KeyPairPool.stats().getCapacity();
+    }
+
+    @Override
+    public long getHits() {
+        return KeyPairPool.stats().getHits();
+    }
+
+    @Override
+    public long getMisses() {
+        return KeyPairPool.stats().getMisses();
+    }
+
+    @Override
+    public long getGenerated() {
+        return KeyPairPool.stats().getGenerated();
+    }
+
+    @Override
+    public long getMeanRefillMillis() {
+        return KeyPairPool.stats().getMeanRefillMillis();
+    }
+
+    @Override
+    public long getLastRefillMillis() {
+        return KeyPairPool.stats().getLastRefillMillis();
+    }
+}
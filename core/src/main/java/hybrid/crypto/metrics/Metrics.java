@@ -0,0 +1,90 @@
+package hybrid.crypto.metrics;
+
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * where the time goes: every Stage is always measured (two System.nanoTime() calls and a few
+ * atomic adds per call); register() publishes the stages as MXBeans named
+ * hybrid.crypto:type=Metrics,stage=&lt;STAGE&gt;, and the key pair pool as hybrid.crypto:type=KeyPairPool
+ *
+ * call sites:
+ * <pre>
+ * final long start = Metrics.start();
+ * try {
+ *     ...
+ *     Metrics.record(Stage.X, start, bytes);
+ * } catch (Exception e) {
+ *     Metrics.failed(Stage.X, start);
+ *     throw e;
+ * }
+ * </pre>
+ */
+public final class Metrics {
+    public static final String DOMAIN = "hybrid.crypto";
+
+    private static final Map<Stage, StageMetrics> STAGES = new EnumMap<>(Stage.class);
+    private static boolean registered;
+
+    static {
+        for (final Stage stage : Stage.values()) {
+            STAGES.put(stage, new StageMetrics(stage));
+        }
+    }
+
+    private Metrics() {}
+
+    public static StageMetrics get(@NonNull final Stage stage) {
+        return STAGES.get(stage);
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    public static void record(@NonNull final Stage stage, final long startNanos, final long bytes) {
+        STAGES.get(stage).record(System.nanoTime() - startNanos, bytes, false);
+    }
+
+    public static void failed(@NonNull final Stage stage, final long startNanos) {
+        STAGES.get(stage).record(System.nanoTime() - startNanos, 0, true);
+    }
+
+    public static ObjectName objectName(@NonNull final Stage stage) throws JMException {
+        return new ObjectName(DOMAIN + ":type=Metrics,stage=" + stage.name());
+    }
+
+    public static ObjectName keyPairPoolName() throws JMException {
+        return new ObjectName(DOMAIN + ":type=KeyPairPool");
+    }
+
+    /**
+     * with the platform MBean server, once; false when JMX refused
+     */
+    public static synchronized boolean register() {
+        if (registered) return true;
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (final Stage stage : Stage.values()) {
+                final ObjectName name = objectName(stage);
+                if (!server.isRegistered(name)) server.registerMBean(STAGES.get(stage), name);
+            }
+            final ObjectName pool = keyPairPoolName();
+            if (!server.isRegistered(pool)) server.registerMBean(new KeyPairPoolMetrics(), pool);
+            registered = true;
+        } catch (JMException | SecurityException e) {
+            // measured anyway, just not published
+        }
+        return registered;
+    }
+
+    public static void reset() {
+        STAGES.values().forEach(StageMetrics::reset);
+    }
+}
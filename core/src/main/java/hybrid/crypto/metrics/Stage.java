@@ -0,0 +1,22 @@
+package hybrid.crypto.metrics;
+
+/**
+ * the measured steps of opening, saving and using a profile
+ */
+public enum Stage {
+    /** password to key (scrypt or PBKDF2); bytes: derived key */
+    KDF,
+    /** a message key encrypted with a receiver's public key (RSA or EC_1); bytes: input */
+    KEY_WRAP,
+    /** a message key decrypted with the owner's private key; bytes: input */
+    KEY_UNWRAP,
+    /** AES over byte[], streams or channels, including the payload's own I/O; bytes: input */
+    AES_ENCRYPT,
+    AES_DECRYPT,
+    /** whole-file reads and writes outside the AES loops (profiles); bytes: file */
+    FILE_READ,
+    FILE_WRITE,
+    /** messages and cards to and from JSON, excluding the AES part; bytes: file, when known */
+    JSON_ENCODE,
+    JSON_DECODE
+}
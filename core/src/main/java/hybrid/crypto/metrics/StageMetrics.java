@@ -0,0 +1,146 @@
+package hybrid.crypto.metrics;
+
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters and a latency histogram of one Stage; recording takes no lock and allocates nothing
+ *
+ * bucket 0: under 1 µs, bucket i: [2^(i-1), 2^i) µs, the last bucket: everything longer
+ */
+public final class StageMetrics implements StageMetricsMXBean {
+    static final int BUCKETS = 32;
+
+    private final Stage stage;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    StageMetrics(@NonNull final Stage stage) {
+        this.stage = stage;
+    }
+
+    void record(final long nanos, final long byteCount, final boolean failed) {
+        count.increment();
+        if (failed) errors.increment();
+        if (byteCount > 0) bytes.add(byteCount);
+        totalNanos.add(nanos);
+        buckets.incrementAndGet(bucket(nanos));
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    static int bucket(final long nanos) {
+        final long micros = nanos / 1_000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    @Override
+    public String getStage() {
+        return stage.name();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1e6;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        final long n = count.sum();
+        return (n == 0) ? (0) : (totalNanos.sum() / 1e6 / n);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+
+    @Override
+    public double getP90Millis() {
+        return percentileMillis(0.90);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    /**
+     * the bound of the bucket holding the q-th call, capped at the slowest call seen
+     */
+    double percentileMillis(final double q) {
+        final long[] counts = getBucketCounts();
+        long n = 0;
+        for (final long c : counts) n += c;
+        if (n == 0) return 0;
+        final long rank = (long) Math.ceil(q * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min((1L << i) / 1e3, getMaxMillis());
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public long[] getBucketBoundsMicros() {
+        final long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) bounds[i] = (i == BUCKETS - 1) ? (Long.MAX_VALUE) : (1L << i);
+        return bounds;
+    }
+
+    @Override
+    public long[] getBucketCounts() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = buckets.get(i);
+        return counts;
+    }
+
+    /**
+     * not atomic with respect to calls being recorded at the same time
+     */
+    @Override
+    public void reset() {
+        count.reset();
+        errors.reset();
+        bytes.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls (%d failed), %d bytes, mean %.3f ms, p99 %.3f ms, max %.3f ms",
+                stage, getCount(), getErrors(), getBytes(), getMeanMillis(), getP99Millis(), getMaxMillis());
+    }
+}
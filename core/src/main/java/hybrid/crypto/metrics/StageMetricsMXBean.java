@@ -0,0 +1,37 @@
+package hybrid.crypto.metrics;
+
+/**
+ * one Stage as seen over JMX (hybrid.crypto:type=Metrics,stage=&lt;STAGE&gt;);
+ * the percentiles are the upper bounds of power-of-two histogram buckets
+ */
+public interface StageMetricsMXBean {
+    String getStage();
+
+    long getCount();
+
+    long getErrors();
+
+    long getBytes();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    /**
+     * bucket i counts calls shorter than getBucketBoundsMicros()[i] (and not shorter than bucket i-1's bound);
+     * the last bucket is open
+     */
+    long[] getBucketBoundsMicros();
+
+    long[] getBucketCounts();
+
+    void reset();
+}
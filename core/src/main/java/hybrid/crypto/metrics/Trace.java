@@ -0,0 +1,56 @@
+package hybrid.crypto.metrics;
+
+import hybrid.crypto.keys.Type;
+import lombok.NonNull;
+
+/**
+ * a Java Flight Recorder event around one crypto or persistence operation (see CryptoEvent);
+ * when no recording has the event enabled, or the JVM has no JFR (Java 8 before 8u262),
+ * begin() returns a shared no-op trace and nothing else happens
+ *
+ * call sites:
+ * <pre>
+ * final Trace trace = Trace.begin(Trace.Kind.X);
+ * try {
+ *     ...
+ *     trace.end(payloadSize, type, null);
+ * } catch (Exception e) {
+ *     trace.end(payloadSize, type, e);
+ *     throw e;
+ * }
+ * </pre>
+ */
+public abstract class Trace {
+    public enum Kind {
+        PROFILE_LOAD, PROFILE_SAVE, MESSAGE_ENCRYPT, MESSAGE_DECRYPT, CARD_READ, KEY_GENERATION
+    }
+
+    static final Trace NONE = new Trace() {
+        @Override
+        public void end(long payloadSize, Type type, Throwable failure) {
+        }
+    };
+
+    private static final boolean JFR = isJfrAvailable();
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Trace.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    Trace() {}
+
+    public static Trace begin(@NonNull final Kind kind) {
+        return (JFR) ? (JfrTrace.start(kind)) : (NONE);
+    }
+
+    /**
+     * @param type      null when unknown (e.g. a card file that did not parse)
+     * @param failure   null on success; a CancellationException is recorded as cancelled
+     */
+    public abstract void end(long payloadSize, Type type, Throwable failure);
+}
@@ -0,0 +1,211 @@
+package hybrid.crypto.algorithms;
+
+import hybrid.crypto.keys.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class FileProcessingTest {
+
+    @Test
+    public void encryptDecryptTest() {
+        final SecureRandom secureRandom = new SecureRandom();
+        final String label = "1234567890";
+        for (Type type : Type.values()) {
+
+            byte[] randBytes;
+            if (type.isAsymmetric()) {
+                randBytes = new byte[382];
+            } else {
+                randBytes = new byte[24 * 1024];
+            }
+            secureRandom.nextBytes(randBytes);
+
+            try {
+                Keys keys = null;
+                MyKeyPair keyPair = null;
+
+                if (type.isAsymmetric()) {
+                    keyPair = AsymmetricKeys.generatePair(type, label);
+                } else if (type.isSymmetric()) {
+                    keys = SymmetricKeys.generateKey(type, label);
+                }
+                assertTrue("keys == null && keyPair == null",
+                        keys != null || keyPair != null);
+
+                final byte[] enc = (keys != null) ?
+                        (keys.encrypt(randBytes)) :
+                        (keyPair.publicRsaKey.encrypt(randBytes));
+                assertFalse(
+                        "encrypted text equals to plaintext [" + type.getName() + "]",
+                        Arrays.equals(randBytes, enc)
+                );
+
+                final byte[] dec = (keys != null) ?
+                        (keys.decrypt(enc)) :
+                        (keyPair.privateRsaKey.decrypt(enc)) ;
+                assertArrayEquals(
+                        "decrypted text NOT equals to plaintext [" + type.getName() + "]",
+                        randBytes, dec
+                );
+
+            } catch (Exception e) {
+                String info = "Should not have thrown any exceptions!\n";
+                info += "Algorithm: " + type.getName() + "\n";
+                info += "Exception message: " + e.getMessage();
+                fail(info);
+            }
+        }
+    }
+
+    @Test
+    public void streamEncryptDecryptTest() throws Exception {
+        final SecureRandom secureRandom = new SecureRandom();
+        final String label = "1234567890";
+        for (Type type : Type.values()) {
+            if (!type.isSymmetric()) continue;
+
+            final byte[] randBytes = new byte[1024 * 1024 + 7];
+            secureRandom.nextBytes(randBytes);
+            final SymmetricKeys keys = SymmetricKeys.generateKey(type, label);
+            assertNotNull("keys == null [" + type.getName() + "]", keys);
+
+            final ByteArrayOutputStream enc = new ByteArrayOutputStream();
+            keys.encrypt(new ByteArrayInputStream(randBytes), enc);
+            assertArrayEquals(
+                    "stream and byte[] decryption differ [" + type.getName() + "]",
+                    randBytes, keys.decrypt(enc.toByteArray())
+            );
+
+            final ByteArrayOutputStream dec = new ByteArrayOutputStream();
+            keys.decrypt(new ByteArrayInputStream(enc.toByteArray()), dec);
+            assertArrayEquals(
+                    "decrypted stream NOT equals to plaintext [" + type.getName() + "]",
+                    randBytes, dec.toByteArray()
+            );
+        }
+    }
+
+    @Test
+    public void channelEncryptDecryptTest() throws Exception {
+        final SecureRandom secureRandom = new SecureRandom();
+        for (Type type : Type.values()) {
+            if (!type.isSymmetric()) continue;
+            final SymmetricKeys keys = SymmetricKeys.generateKey(type, "1234567890");
+            assertNotNull("keys == null [" + type.getName() + "]", keys);
+
+            for (final int size : new int[]{0, 15, 64 * 1024, 2 * 64 * 1024 + 1, 1024 * 1024 + 7}) {
+                final byte[] randBytes = new byte[size];
+                secureRandom.nextBytes(randBytes);
+
+                final ByteArrayOutputStream enc = new ByteArrayOutputStream();
+                keys.encrypt(Channels.newChannel(new ByteArrayInputStream(randBytes)), Channels.newChannel(enc));
+                assertArrayEquals(
+                        "channel and byte[] decryption differ [" + type.getName() + ", " + size + "]",
+                        randBytes, keys.decrypt(enc.toByteArray())
+                );
+
+                final ByteArrayOutputStream dec = new ByteArrayOutputStream();
+                keys.decrypt(Channels.newChannel(new ByteArrayInputStream(keys.encrypt(randBytes))),
+                        Channels.newChannel(dec));
+                assertArrayEquals(
+                        "decrypted channel NOT equals to plaintext [" + type.getName() + ", " + size + "]",
+                        randBytes, dec.toByteArray()
+                );
+            }
+        }
+    }
+
+    @Test
+    public void channelProgressTest() throws Exception {
+        final byte[] randBytes = new byte[3 * 64 * 1024 + 5];
+        new SecureRandom().nextBytes(randBytes);
+        for (Type type : Type.values()) {
+            if (!type.isSymmetric()) continue;
+            final SymmetricKeys keys = SymmetricKeys.generateKey(type, "1234567890");
+            assertNotNull("keys == null [" + type.getName() + "]", keys);
+
+            final CountingProgress encProgress = new CountingProgress(Long.MAX_VALUE);
+            final ByteArrayOutputStream enc = new ByteArrayOutputStream();
+            keys.encrypt(Channels.newChannel(new ByteArrayInputStream(randBytes)), Channels.newChannel(enc),
+                    encProgress);
+            assertEquals("plaintext bytes [" + type.getName() + "]", randBytes.length, encProgress.bytes.get());
+
+            final byte[] iv = new byte[(type == Type.AES_2) ? (7) : (16)];
+            final CountingProgress decProgress = new CountingProgress(Long.MAX_VALUE);
+            keys.decrypt(Channels.newChannel(new ByteArrayInputStream(enc.toByteArray())),
+                    Channels.newChannel(new ByteArrayOutputStream()), decProgress);
+            assertEquals("ciphertext bytes [" + type.getName() + "]",
+                    enc.size() - iv.length, decProgress.bytes.get());
+
+            final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+            try {
+                keys.encrypt(Channels.newChannel(new ByteArrayInputStream(randBytes)), Channels.newChannel(partial),
+                        new CountingProgress(64 * 1024));
+                fail("cancelled encryption completed [" + type.getName() + "]");
+            } catch (CancellationException expected) {
+            }
+            assertTrue("cancelled encryption went on [" + type.getName() + "]", partial.size() < enc.size() / 2);
+        }
+    }
+
+    /**
+     * cancelled once more than cancelAfter bytes are counted
+     */
+    private static class CountingProgress implements Progress {
+        private final AtomicLong bytes = new AtomicLong();
+        private final long cancelAfter;
+
+        private CountingProgress(final long cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void add(final long bytes) {
+            this.bytes.addAndGet(bytes);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return bytes.get() > cancelAfter;
+        }
+    }
+
+    @Test
+    public void gcmTamperTest() throws Exception {
+        final SecureRandom secureRandom = new SecureRandom();
+        final byte[] randBytes = new byte[3 * 64 * 1024];
+        secureRandom.nextBytes(randBytes);
+        final SymmetricKeys keys = SymmetricKeys.generateKey(Type.AES_2, "1234567890");
+        assertNotNull(keys);
+        final byte[] enc = keys.encrypt(randBytes);
+
+        final byte[] flipped = enc.clone();
+        flipped[enc.length / 2] ^= 1;
+        final int chunk = 64 * 1024 + 16;
+        final byte[] truncated = Arrays.copyOf(enc, 7 + 2 * chunk);
+        final byte[] appended = Arrays.copyOf(enc, enc.length + 16);
+
+        for (final byte[] bad : new byte[][]{flipped, truncated, appended}) {
+            try {
+                keys.decrypt(new ByteArrayInputStream(bad), new ByteArrayOutputStream());
+                fail("tampered ciphertext accepted");
+            } catch (Exception expected) {
+            }
+            try {
+                keys.decrypt(Channels.newChannel(new ByteArrayInputStream(bad)),
+                        Channels.newChannel(new ByteArrayOutputStream()));
+                fail("tampered ciphertext accepted");
+            } catch (Exception expected) {
+            }
+        }
+    }
+}
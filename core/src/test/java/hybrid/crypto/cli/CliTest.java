@@ -0,0 +1,85 @@
+package hybrid.crypto.cli;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * profiles are written under hybrid.crypto.dataDir (set for the tests in the core pom)
+ */
+public class CliTest {
+    private static final String PROFILE = "clitest" + System.nanoTime() % 100000;
+    private static final String OWNER = "cliowner";
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static File passwordFile;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        passwordFile = File.createTempFile("password", ".txt");
+        passwordFile.deleteOnExit();
+        Files.write(passwordFile.toPath(), "correct horse battery staple".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, Cli.run(new String[]{"create", PROFILE, OWNER, "--key-type", "ec",
+                "--password-file", passwordFile.getPath()}));
+    }
+
+    @Test
+    public void usageTest() {
+        assertEquals(2, Cli.run(new String[0]));
+        assertEquals(2, Cli.run(new String[]{"cards"}));
+        assertEquals(2, Cli.run(new String[]{"frobnicate", PROFILE}));
+        assertEquals(2, Cli.run(new String[]{"cards", PROFILE, "--unknown"}));
+        assertEquals(2, Cli.run(new String[]{"cards", PROFILE, "--password-file"}));
+        assertEquals(2, Cli.run(new String[]{"create", "short", OWNER}));
+        assertEquals(2, Cli.run(new String[]{"cards", "nosuchprofile", "--password-file", passwordFile.getPath()}));
+    }
+
+    @Test
+    public void jsonWithSeveralReceiversTest() throws Exception {
+        final File plain = folder.newFile("plain.txt");
+        final File out = folder.newFolder();
+        assertEquals(2, Cli.run(new String[]{"encrypt", PROFILE, "--json", "--to", OWNER + "," + OWNER,
+                plain.getPath(), "--out", out.getPath(), "--password-file", passwordFile.getPath()}));
+        assertEquals(0, out.list().length);
+    }
+
+    @Test
+    public void failureTest() throws Exception {
+        final File wrongPassword = folder.newFile();
+        Files.write(wrongPassword.toPath(), "wrong".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, Cli.run(new String[]{"cards", PROFILE, "--password-file", wrongPassword.getPath()}));
+
+        final File notAMessage = folder.newFile("plain.hcm");
+        assertEquals(1, Cli.run(new String[]{"decrypt", PROFILE, notAMessage.getPath(),
+                "--out", folder.newFolder().getPath(), "--password-file", passwordFile.getPath()}));
+    }
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final File plain = folder.newFile("plain.txt");
+        Files.write(plain.toPath(), "round trip through the command line".getBytes(StandardCharsets.UTF_8));
+        final File encrypted = folder.newFolder();
+        final File decrypted = folder.newFolder();
+
+        for (final String format : new String[]{"hcm", "json"}) {
+            assertEquals(0, Cli.run(new String[]{"encrypt", PROFILE, "--to", OWNER, plain.getPath(),
+                    (format.equals("json")) ? ("--json") : ("--fail-fast"),
+                    "--out", encrypted.getPath(), "--password-file", passwordFile.getPath()}));
+            final File message = new File(encrypted, "plain." + format);
+            assertTrue(message.isFile());
+
+            assertEquals(0, Cli.run(new String[]{"decrypt", PROFILE, message.getPath(), "--on-conflict", "overwrite",
+                    "--out", decrypted.getPath(), "--password-file", passwordFile.getPath()}));
+            assertArrayEquals(Files.readAllBytes(plain.toPath()),
+                    Files.readAllBytes(new File(decrypted, "plain.txt").toPath()));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.keys.Type;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BatchProcessorTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void receiversCheckedUpFrontTest() throws Exception {
+        final Database database = new Database("batchtest", "owner", Type.EC_1);
+        final Card owner = database.getCard(database.getOwnerId());
+        final OutputPolicy outputPolicy = OutputPolicy.inDirectory(folder.getRoot());
+
+        new BatchProcessor(database, Mode.ENCRYPTION, Arrays.asList(owner, owner), outputPolicy, false);
+        new BatchProcessor(database, Mode.DECRYPTION, Collections.emptyList(), outputPolicy, false);
+        try {
+            new BatchProcessor(database, Mode.ENCRYPTION_JSON, Arrays.asList(owner, owner), outputPolicy, false);
+            fail("JSON batch with two receivers");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            new BatchProcessor(database, Mode.ENCRYPTION, Collections.emptyList(), outputPolicy, false);
+            fail("batch without receivers");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
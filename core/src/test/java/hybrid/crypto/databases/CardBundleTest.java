@@ -0,0 +1,78 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.PublicRsaKey;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CardBundleTest {
+    private static final int CARDS = 500;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Database database;
+    private static PublicRsaKey pubKey;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        database = new Database("bundletest", "owner");
+        pubKey = database.getCard(database.getOwnerId()).getPersonPubKey();
+    }
+
+    @Test
+    public void bulkImportTest() throws Exception {
+        final List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(new Card(new Identifier(), "card" + i, pubKey));
+        }
+        final File bundle = folder.newFile("bundle.json");
+        CardBundle.write(bundle, cards.subList(0, CARDS - 10));
+
+        final File dir = folder.newFolder("single");
+        final List<File> singles = CardBundle.writeEach(dir, cards.subList(CARDS - 10, CARDS), 4);
+        assertEquals(10, singles.size());
+
+        // an older copy of a bundled card, a newer one, and a damaged file
+        final File older = folder.newFile("older.json");
+        new Card(1, "older", cards.get(0).getPersonId(), pubKey).toJsonFile(older);
+        final File newer = folder.newFile("newer.json");
+        new Card(System.currentTimeMillis() + 1000, "newer", cards.get(1).getPersonId(), pubKey).toJsonFile(newer);
+        final File broken = folder.newFile("broken.json");
+        Files.write(broken.toPath(), "{\"cards\": 5}".getBytes(StandardCharsets.UTF_8));
+
+        final List<File> files = new ArrayList<>(Arrays.asList(bundle, older, newer, broken));
+        files.addAll(singles);
+        final CardBundle.Import read = CardBundle.read(files, 4);
+        assertEquals(CARDS + 2, read.getCards().size());
+        assertEquals(1, read.getFailures().size());
+        assertTrue(read.getFailures().containsKey(broken));
+        assertEquals("card0", read.getCards().get(0).getPersonName());
+
+        final Database db = SerializationUtils.clone(database);
+        final Database.MergeSummary summary = db.addCards(read.getCards());
+        assertEquals(CARDS, summary.getAdded());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(1, summary.getUnchanged());
+        assertEquals(CARDS + 1, db.getCardCount());
+        assertEquals("card0", db.getCard(cards.get(0).getPersonId()).getPersonName());
+        assertEquals("newer", db.getCard(cards.get(1).getPersonId()).getPersonName());
+
+        // a bundle of the whole profile round-trips
+        final File all = folder.newFile("all.json");
+        CardBundle.write(all, db.getCardList());
+        final CardBundle.Import reread = CardBundle.read(Arrays.asList(all), 2);
+        assertEquals(db.getCardCount(), reread.getCards().size());
+        assertEquals(0, SerializationUtils.clone(db).addCards(reread.getCards()).getAdded());
+    }
+}
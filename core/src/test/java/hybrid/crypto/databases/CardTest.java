@@ -0,0 +1,95 @@
+package hybrid.crypto.databases;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import hybrid.crypto.algorithms.Base64Conversion;
+import hybrid.crypto.keys.AsymmetricKeys;
+import hybrid.crypto.keys.PublicRsaKey;
+import hybrid.crypto.keys.Type;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InvalidClassException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class CardTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PublicRsaKey pubKey;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        pubKey = (PublicRsaKey) AsymmetricKeys.generatePair(Type.RSA_1, "cardtest").publicRsaKey;
+    }
+
+    private static void assertSameCard(final Card expected, final Card actual) {
+        assertEquals(expected.getPersonId(), actual.getPersonId());
+        assertEquals(expected.getPersonName(), actual.getPersonName());
+        assertEquals(expected.getCreationTime(), actual.getCreationTime());
+        assertEquals(expected.getPersonPubKey().getType(), actual.getPersonPubKey().getType());
+        assertArrayEquals(expected.getPersonPubKey().getEncoded(), actual.getPersonPubKey().getEncoded());
+    }
+
+    @Test
+    public void compactTest() throws Exception {
+        final Card card = new Card(new Identifier(), "Zoë Ångström", pubKey);
+        final byte[] bytes = card.toBytes();
+        assertSameCard(card, Card.fromBytes(bytes));
+        // RSA-4096 SubjectPublicKeyInfo is 550 bytes
+        assertTrue(bytes.length < 600);
+
+        final File file = folder.newFile("card.json");
+        card.toJsonFile(file);
+        assertSameCard(card, Card.fromJsonFile(file));
+
+        for (final byte[] damaged : Arrays.asList(
+                Arrays.copyOf(bytes, bytes.length - 1),
+                Arrays.copyOf(bytes, bytes.length + 1),
+                new byte[0])) {
+            try {
+                Card.fromBytes(damaged);
+                fail("damaged card accepted");
+            } catch (Exception expected) {
+                // expected
+            }
+        }
+    }
+
+    private File legacyFile(final Object id, final Object pub) throws Exception {
+        final File file = folder.newFile();
+        try (JsonGenerator generator = Card.MAPPER.getFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("name", "legacy");
+            generator.writeNumberField("time", 1234567890123L);
+            generator.writeStringField("id", Base64Conversion.objToBase64Str(id));
+            generator.writeStringField("pub", Base64Conversion.objToBase64Str(pub));
+            generator.writeEndObject();
+        }
+        return file;
+    }
+
+    /**
+     * legacy-card.json was written by the body of Card.toJsonFile() from the 93a42be release
+     */
+    @Test
+    public void legacyJsonTest() throws Exception {
+        final Card card = Card.fromJsonFile(new File(getClass().getResource("legacy-card.json").toURI()));
+        assertEquals("legacy", card.getPersonName());
+        assertEquals(1234567890123L, card.getCreationTime());
+        assertEquals(Type.RSA_1, card.getPersonPubKey().getType());
+        assertSameCard(card, Card.fromBytes(card.toBytes()));
+
+        try {
+            Card.fromJsonFile(legacyFile(new Identifier(), new HashMap<String, String>()));
+            fail("unexpected class deserialized");
+        } catch (InvalidClassException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.PublicRsaKey;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+import static org.junit.Assert.*;
+
+public class DatabaseIndexTest {
+    private static final int CARDS = 20_000;
+
+    private static Database database;
+    private static PublicRsaKey pubKey;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        database = new Database("indextest", "owner");
+        pubKey = database.getCard(database.getOwnerId()).getPersonPubKey();
+    }
+
+    @Test
+    public void identifierTest() {
+        final Identifier id = new Identifier();
+        final Identifier copy = new Identifier(id.getIdBytes());
+        assertEquals(id, copy);
+        assertEquals(id.hashCode(), copy.hashCode());
+        assertNotEquals(id, new Identifier());
+        assertNotEquals(id, null);
+    }
+
+    @Test
+    public void indexTest() throws Exception {
+        final Database db = SerializationUtils.clone(database);
+        final List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            final Card card = new Card(new Identifier(), "name" + (i % (CARDS / 2)), pubKey);
+            cards.add(card);
+            db.addCard(card);
+        }
+        assertEquals(CARDS + 1, db.getCardCount());
+        assertEquals(db.getOwnerId(), db.getCardList().get(0).getPersonId());
+        assertSame(cards.get(123), db.getCard(new Identifier(cards.get(123).getPersonId().getIdBytes())));
+        assertEquals(2, db.findCardsByName("name7").size());
+
+        final String hex = byteArrToHexStr(cards.get(5).getPersonId().getIdBytes());
+        assertEquals(cards.get(5), db.findCardsByIdPrefix(hex.toUpperCase()).get(0));
+        for (final Card c : db.findCardsByIdPrefix(hex.substring(0, 2))) {
+            assertTrue(byteArrToHexStr(c.getPersonId().getIdBytes()).startsWith(hex.substring(0, 2)));
+        }
+
+        // a newer card with the same ID replaces the old one in place
+        final Card updated = new Card(System.currentTimeMillis() + 1000, "renamed",
+                cards.get(10).getPersonId(), pubKey);
+        db.addCard(updated);
+        assertSame(updated, db.getCardList().get(11));
+        assertEquals(1, db.findCardsByName("name10").size());
+        assertEquals(1, db.findCardsByName("renamed").size());
+
+        db.removeCard(cards.get(20));
+        assertNull(db.getCard(cards.get(20).getPersonId()));
+        assertEquals(CARDS, db.getCardCount());
+        assertTrue(db.findCardsByIdPrefix(byteArrToHexStr(cards.get(20).getPersonId().getIdBytes())).isEmpty());
+
+        // snapshots keep the order and rebuild the indexes
+        final Database copy = SerializationUtils.clone(db);
+        final List<Card> expected = db.getCardList();
+        final List<Card> actual = copy.getCardList();
+        assertEquals(CARDS, actual.size());
+        for (int i = 0; i < CARDS; i++) {
+            assertEquals(expected.get(i).getPersonId(), actual.get(i).getPersonId());
+        }
+        assertEquals("renamed", copy.getCard(updated.getPersonId()).getPersonName());
+        assertEquals(2, copy.findCardsByName("name7").size());
+    }
+}
@@ -0,0 +1,161 @@
+package hybrid.crypto.databases;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.keys.*;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class KeyWrapTest {
+    private static MyKeyPair keyPair;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        keyPair = AsymmetricKeys.generatePair(Type.RSA_2, "keywraptest");
+    }
+
+    @Test
+    public void encodingTest() throws Exception {
+        final byte[] plain = "key encodings".getBytes();
+        for (final Type type : Arrays.asList(Type.AES_1, Type.AES_2)) {
+            final SymmetricKeys key = SymmetricKeys.generateKey(type, "keywraptest");
+            final byte[] bytes = key.toBytes();
+            assertEquals(1 + type.getKeySize() / 8, bytes.length);
+            final SymmetricKeys decoded = Keys.fromBytes(bytes, SymmetricKeys.class);
+            assertEquals(type, decoded.getType());
+            assertArrayEquals(plain, decoded.decrypt(key.encrypt(plain)));
+            final SymmetricKeys reloaded = SerializationUtils.clone(key);
+            assertArrayEquals(bytes, reloaded.toBytes());
+            assertEquals(key, reloaded);
+            assertEquals(key.getKeyLabel(), reloaded.getKeyLabel());
+        }
+
+        final PublicRsaKey pub = Keys.fromBytes(keyPair.publicRsaKey.toBytes(), PublicRsaKey.class);
+        final PrivateRsaKey priv = Keys.fromBytes(keyPair.privateRsaKey.toBytes(), PrivateRsaKey.class);
+        assertArrayEquals(plain, priv.decrypt(keyPair.publicRsaKey.encrypt(plain)));
+        assertArrayEquals(plain, keyPair.privateRsaKey.decrypt(pub.encrypt(plain)));
+        final PrivateRsaKey reloaded = SerializationUtils.clone((PrivateRsaKey) keyPair.privateRsaKey);
+        assertArrayEquals(keyPair.privateRsaKey.toBytes(), reloaded.toBytes());
+        assertEquals(keyPair.privateRsaKey, reloaded);
+        assertEquals(keyPair.privateRsaKey.getKeyLabel(), reloaded.getKeyLabel());
+
+        try {
+            Keys.fromBytes(keyPair.publicRsaKey.toBytes(), SymmetricKeys.class);
+            fail("public key accepted as a symmetric key");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void wrapTest() throws Exception {
+        final Card card = new Card(new Identifier(), "receiver", (PublicRsaKey) keyPair.publicRsaKey);
+        final SymmetricKeys key = SymmetricKeys.generateKey(Type.AES_2, "keywraptest");
+        final SymmetricKeys unwrapped = Message.unwrapKey(Message.wrapKey(key, card),
+                (PrivateRsaKey) keyPair.privateRsaKey);
+        assertArrayEquals(key.toBytes(), unwrapped.toBytes());
+    }
+
+    @Test
+    public void ecWrapTest() throws Exception {
+        final MyKeyPair ecPair = AsymmetricKeys.generatePair(Type.EC_1, "keywraptest");
+        final Card card = new Card(new Identifier(), "receiver", (PublicRsaKey) ecPair.publicRsaKey);
+        final Card decoded = Card.fromBytes(card.toBytes());
+        assertEquals(Type.EC_1, decoded.getPersonPubKey().getType());
+        assertTrue(card.toBytes().length < 150);
+
+        final SymmetricKeys key = SymmetricKeys.generateKey(Type.AES_2, "keywraptest");
+        final byte[] wrapped = Message.wrapKey(key, decoded);
+        final PrivateRsaKey priv = Keys.fromBytes(ecPair.privateRsaKey.toBytes(), PrivateRsaKey.class);
+        assertArrayEquals(key.toBytes(), Message.unwrapKey(wrapped, priv).toBytes());
+
+        try {
+            Message.unwrapKey(wrapped, (PrivateRsaKey) AsymmetricKeys.generatePair(Type.EC_1, "other").privateRsaKey);
+            fail("unwrapped with another key");
+        } catch (javax.crypto.AEADBadTagException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void receiversLimitTest() throws Exception {
+        final Card card = new Card(new Identifier(), "receiver", (PublicRsaKey) keyPair.publicRsaKey);
+        final File file = folder.newFile();
+        new Message(Collections.nCopies(Message.MAX_RECEIVERS, card), new Identifier(), file);
+        try {
+            new Message(Collections.nCopies(Message.MAX_RECEIVERS + 1, card), new Identifier(), file);
+            fail("key slot count overflows the container header");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+
+        final File out = folder.newFolder();
+        try {
+            new Message(Arrays.asList(card, card), new Identifier(), file)
+                    .encryptAndSaveToJson(OutputPolicy.inDirectory(out));
+            fail("JSON message with two receivers");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals(0, out.list().length);
+    }
+
+    /**
+     * the fixtures were written by the 93a42be release (Java serialization, GZIP, AES_1):
+     * legacy-wrapped-key.json holds a key wrapped by its Message.prepareKeyToSend() together with the
+     * receiver's private key (PKCS#8) and the raw AES key; legacy-message.json is a message to the same
+     * receiver (legacy-card.json) written by the body of its Message.encryptAndSaveToJson()
+     */
+    @Test
+    public void legacyWrapTest() throws Exception {
+        final JsonNode fixture = legacyFixture();
+        final Base64.Decoder base64 = Base64.getDecoder();
+        final SymmetricKeys key = Message.unwrapKey(base64.decode(fixture.get("wrapped").asText()),
+                legacyPrivateKey(fixture));
+        assertEquals(Type.AES_1, key.getType());
+        final byte[] raw = base64.decode(fixture.get("key").asText());
+        assertArrayEquals(raw, Arrays.copyOfRange(key.toBytes(), 1, 1 + raw.length));
+    }
+
+    @Test
+    public void legacyMessageTest() throws Exception {
+        final Card card = Card.fromJsonFile(new File(getClass().getResource("legacy-card.json").toURI()));
+        final File message = folder.newFile("legacy-message.json");
+        Files.copy(new File(getClass().getResource("legacy-message.json").toURI()).toPath(), message.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        final File output = Message.recreateFileFromJson(card, legacyPrivateKey(legacyFixture()), message,
+                OutputPolicy.inDirectory(folder.newFolder()));
+        assertEquals("legacy.txt", output.getName());
+        assertEquals("Written by the 93a42be release.\n",
+                new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+    }
+
+    private JsonNode legacyFixture() throws Exception {
+        return Card.MAPPER.readTree(new File(getClass().getResource("legacy-wrapped-key.json").toURI()));
+    }
+
+    private static PrivateRsaKey legacyPrivateKey(final JsonNode fixture) throws Exception {
+        final byte[] privateKey = Base64.getDecoder().decode(fixture.get("privateKey").asText());
+        final byte[] encoded = new byte[2 + privateKey.length];
+        encoded[0] = Type.RSA_1.getTypeId();
+        encoded[1] = 1;
+        System.arraycopy(privateKey, 0, encoded, 2, privateKey.length);
+        return Keys.fromBytes(encoded, PrivateRsaKey.class);
+    }
+}
@@ -0,0 +1,74 @@
+package hybrid.crypto.databases;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ProfileCatalogTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Path profile(final Path root, final String name, final int size) throws Exception {
+        final Path dir = Files.createDirectories(root.resolve(name));
+        return Files.write(dir.resolve(name + Database.EXTENSION), new byte[size]);
+    }
+
+    private static List<String> names(final List<ProfileCatalog.Entry> entries) {
+        return entries.stream().map(ProfileCatalog.Entry::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void scanTest() throws Exception {
+        final Path root = folder.getRoot().toPath();
+        profile(root, "charlie", 10);
+        final Path alpha = profile(root, "alpha", 20);
+        profile(root, "Bravo", 30);
+        // not profiles, or too deep to be one
+        Files.write(root.resolve("alpha").resolve("message.hcm"), new byte[1]);
+        Files.write(Files.createDirectories(root.resolve("alpha").resolve("nested"))
+                .resolve("deep" + Database.EXTENSION), new byte[1]);
+        Files.write(root.resolve("alpha").resolve(Database.EXTENSION), new byte[1]);
+
+        final ProfileCatalog catalog = new ProfileCatalog(root);
+        final List<ProfileCatalog.Entry> entries = catalog.refresh();
+        assertEquals(java.util.Arrays.asList("alpha", "Bravo", "charlie"), names(entries));
+        assertEquals(alpha, entries.get(0).getPath());
+        assertEquals(20, entries.get(0).getSize());
+        assertEquals(Files.getLastModifiedTime(alpha).toMillis(), entries.get(0).getLastModified());
+        assertSame(entries, catalog.getEntries());
+
+        Files.delete(alpha);
+        assertEquals(java.util.Arrays.asList("Bravo", "charlie"), names(catalog.refresh()));
+        assertTrue(new ProfileCatalog(new File(folder.getRoot(), "missing").toPath()).refresh().isEmpty());
+    }
+
+    @Test
+    public void watchTest() throws Exception {
+        final Path root = folder.getRoot().toPath();
+        profile(root, "alpha", 1);
+        try (ProfileCatalog catalog = new ProfileCatalog(root)) {
+            final CountDownLatch[] changed = {new CountDownLatch(1)};
+            catalog.setListener(() -> changed[0].countDown());
+            catalog.watch();
+            assertEquals(1, catalog.getEntries().size());
+
+            profile(root, "bravo", 1);
+            assertTrue("new profile not seen", changed[0].await(30, TimeUnit.SECONDS));
+            assertEquals(java.util.Arrays.asList("alpha", "bravo"), names(catalog.getEntries()));
+
+            changed[0] = new CountDownLatch(1);
+            Files.delete(root.resolve("alpha").resolve("alpha" + Database.EXTENSION));
+            assertTrue("removed profile not seen", changed[0].await(30, TimeUnit.SECONDS));
+            assertEquals(java.util.Collections.singletonList("bravo"), names(catalog.getEntries()));
+        }
+    }
+}
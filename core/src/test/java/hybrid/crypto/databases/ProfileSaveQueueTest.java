@@ -0,0 +1,104 @@
+package hybrid.crypto.databases;
+
+import hybrid.crypto.keys.Kdf;
+import hybrid.crypto.keys.PublicRsaKey;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static hybrid.crypto.algorithms.Utils.USER_DATA_DIR;
+import static org.junit.Assert.*;
+
+/**
+ * profiles are written under hybrid.crypto.dataDir (set for the tests in the core pom)
+ */
+public class ProfileSaveQueueTest {
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final Kdf FAST_KDF = Kdf.of(Kdf.Algorithm.PBKDF2_SHA256, 10_000, 0, 1);
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Files.createDirectories(USER_DATA_DIR);
+    }
+
+    @Test
+    public void burstIsCoalescedTest() throws Exception {
+        final Database database = new Database("savequeuetest" + System.nanoTime() % 100000, "owner");
+        database.encryptAndSaveDatabase(PASSWORD, FAST_KDF);
+        final File file = Database.getDatabaseFile(database.getDatabaseName());
+        final PublicRsaKey pubKey = database.getCard(database.getOwnerId()).getPersonPubKey();
+
+        try (ProfileSaveQueue queue = new ProfileSaveQueue(database, 200)) {
+            for (int i = 0; i < 50; i++) {
+                database.addCard(new Card(new Identifier(), "name" + i, pubKey));
+                queue.requestSave();
+            }
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (queue.getSaves().get() == 0) {
+                if (System.currentTimeMillis() > deadline) fail("no background save");
+                Thread.sleep(20);
+            }
+            assertEquals(50, queue.getRequests().get());
+            assertTrue(queue.getSaves().get() < 5);
+
+            database.addCard(new Card(new Identifier(), "last", pubKey));
+            queue.requestSave();
+        }
+        assertEquals(52, Database.decryptDatabaseAndLoad(file, PASSWORD).getCardCount());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void snapshotReplacesFileTest() throws Exception {
+        final Database database = new Database("savequeuetest" + System.nanoTime() % 100000, "owner");
+        database.encryptAndSaveDatabase(PASSWORD, FAST_KDF);
+        final File file = Database.getDatabaseFile(database.getDatabaseName());
+        final long before = file.length();
+
+        database.encryptAndSaveDatabase(PASSWORD, FAST_KDF);
+        assertEquals(before, file.length());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertEquals(1, Database.decryptDatabaseAndLoad(file, PASSWORD).getCardCount());
+    }
+
+    /**
+     * legacy.profile was written by the body of Database.encryptAndSaveDatabase() from the 93a42be release
+     * (owner "legacyOwner"); the first save rewrites it in the log format under the same password,
+     * with the default key derivation
+     */
+    @Test
+    public void legacyProfileTest() throws Exception {
+        final File file = Database.getDatabaseFile("legacyprofile" + System.nanoTime() % 100000);
+        Files.copy(new File(getClass().getResource("legacy.profile").toURI()).toPath(), file.toPath());
+
+        final Database database = Database.decryptDatabaseAndLoad(file, PASSWORD);
+        assertEquals("legacyOwner", database.getCard(database.getOwnerId()).getPersonName());
+        assertEquals(Kdf.defaults(), database.getKdf());
+        database.saveChanges();
+        assertTrue(ProfileLog.isLog(file));
+        final Database reloaded = Database.decryptDatabaseAndLoad(file, PASSWORD);
+        assertEquals(1, reloaded.getCardCount());
+        assertEquals(Kdf.defaults(), reloaded.getKdf());
+    }
+
+    @Test
+    public void truncatedLegacyProfileTest() throws Exception {
+        final File file = Database.getDatabaseFile("legacyprofile" + System.nanoTime() % 100000);
+        Files.write(file.toPath(), new byte[5]);
+        try {
+            Database.decryptDatabaseAndLoad(file, PASSWORD);
+            fail("truncated profile loaded");
+        } catch (Exception e) {
+            assertEquals("profile corrupted", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedQueueTest() throws Exception {
+        final ProfileSaveQueue queue = new ProfileSaveQueue(new Database("savequeuetest", "owner"));
+        queue.close();
+        queue.requestSave();
+    }
+}
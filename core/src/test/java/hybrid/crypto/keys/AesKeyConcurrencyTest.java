@@ -0,0 +1,64 @@
+package hybrid.crypto.keys;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AesKeyConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 400;
+    private static final int IV_SIZE = 16;
+
+    @Test
+    public void sharedKeyStressTest() throws Exception {
+        final SymmetricKeys sharedKey = SymmetricKeys.generateKey(Type.AES_1, "1234567890");
+        final Set<ByteBuffer> ivs = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    final SymmetricKeys ownKey = SymmetricKeys.generateKey(Type.AES_2, "1234567890");
+                    start.await();
+                    for (int i = 0; i < ROUNDS; i++) {
+                        final byte[] plain = new byte[random.nextInt(1, 4 * 1024)];
+                        random.nextBytes(plain);
+                        final SymmetricKeys key = (i % 2 == 0) ? (sharedKey) : (ownKey);
+
+                        final byte[] enc = key.encrypt(plain);
+                        assertTrue("IV reused",
+                                ivs.add(ByteBuffer.wrap(Arrays.copyOf(enc, IV_SIZE))));
+                        assertArrayEquals("byte[] round trip", plain, key.decrypt(enc));
+
+                        if (i % 10 == 0) {
+                            final ByteArrayOutputStream encStream = new ByteArrayOutputStream();
+                            key.encrypt(new ByteArrayInputStream(plain), encStream);
+                            final ByteArrayOutputStream decStream = new ByteArrayOutputStream();
+                            key.decrypt(new ByteArrayInputStream(encStream.toByteArray()), decStream);
+                            assertArrayEquals("stream round trip", plain, decStream.toByteArray());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * ROUNDS, ivs.size());
+    }
+}
@@ -0,0 +1,79 @@
+package hybrid.crypto.keys;
+
+import org.junit.Test;
+
+import java.security.InvalidKeyException;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+import static org.junit.Assert.*;
+
+public class EciesTest {
+
+    private static byte[] hex(final String s) {
+        final byte[] bytes = new byte[s.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * RFC 5869, test case 1
+     */
+    @Test
+    public void hkdfTestVector() throws Exception {
+        assertEquals("3cb25f25faacd57a90434f64d0362f2a2d2d0a90cf1a5a4c5db02d56ecc4c5bf"
+                        + "34007208d5b887185865",
+                byteArrToHexStr(Ecies.hkdf(hex("000102030405060708090a0b0c"),
+                        hex("0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b0b"),
+                        hex("f0f1f2f3f4f5f6f7f8f9"), 42)));
+    }
+
+    @Test
+    public void roundTripTest() throws Exception {
+        final KeyPair keyPair = Ecies.generateKeyPair();
+        final byte[] plain = "ephemeral-static".getBytes();
+        final byte[] enc = Ecies.encrypt((ECPublicKey) keyPair.getPublic(), plain);
+        assertEquals(65 + plain.length + 16, enc.length);
+        assertArrayEquals(plain, Ecies.decrypt((ECPrivateKey) keyPair.getPrivate(), enc));
+        assertFalse(byteArrToHexStr(enc).equals(
+                byteArrToHexStr(Ecies.encrypt((ECPublicKey) keyPair.getPublic(), plain))));
+
+        enc[enc.length - 1] ^= 1;
+        try {
+            Ecies.decrypt((ECPrivateKey) keyPair.getPrivate(), enc);
+            fail("tampered ciphertext accepted");
+        } catch (javax.crypto.AEADBadTagException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void pointNotOnCurveTest() throws Exception {
+        final KeyPair keyPair = Ecies.generateKeyPair();
+        final byte[] enc = Ecies.encrypt((ECPublicKey) keyPair.getPublic(), new byte[32]);
+        enc[64] ^= 1;
+        try {
+            Ecies.decrypt((ECPrivateKey) keyPair.getPrivate(), enc);
+            fail("invalid point accepted");
+        } catch (InvalidKeyException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void keyTypeTest() throws Exception {
+        final MyKeyPair pair = AsymmetricKeys.generatePair(Type.EC_1, "eciestest");
+        final byte[] encoded = ((PublicRsaKey) pair.publicRsaKey).getEncoded();
+        assertEquals(Type.EC_1, PublicRsaKey.fromEncoded(Type.EC_1, "eciestest", encoded).getType());
+        try {
+            PublicRsaKey.fromEncoded(Type.RSA_1, "eciestest", encoded);
+            fail("EC key accepted as RSA");
+        } catch (Exception expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hybrid.crypto.keys;
+
+import org.junit.Test;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+
+import static hybrid.crypto.algorithms.Utils.byteArrToHexStr;
+import static org.junit.Assert.*;
+
+public class KdfTest {
+
+    /**
+     * RFC 7914, section 12
+     */
+    @Test
+    public void scryptTestVectors() throws Exception {
+        assertEquals("fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162"
+                        + "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640",
+                byteArrToHexStr(Kdf.scrypt("password".getBytes(StandardCharsets.US_ASCII),
+                        "NaCl".getBytes(StandardCharsets.US_ASCII), 1024, 16, 64)));
+        assertEquals("7023bdcb3afd7348461c06cd81fd38ebfda8fbba904f8e3ea9b543f6545da1f2"
+                        + "d5432955613f0fcf62d49705242a9af9e61e85dc0d651e40dfcf017b45575887",
+                byteArrToHexStr(Kdf.scrypt("pleaseletmein".getBytes(StandardCharsets.US_ASCII),
+                        "SodiumChloride".getBytes(StandardCharsets.US_ASCII), 16384, 1, 64)));
+    }
+
+    @Test
+    public void legacyMatchesPbkdf2() throws Exception {
+        final byte[] salt = new byte[16];
+        final byte[] expected = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                .generateSecret(new PBEKeySpec("password".toCharArray(), salt, 65536, 256)).getEncoded();
+        assertArrayEquals(expected, Kdf.LEGACY.derive("password", salt, 32));
+    }
+
+    @Test
+    public void smallHeapDefaultsTest() {
+        final long mib = 1024 * 1024;
+        assertEquals(Kdf.of(Kdf.Algorithm.SCRYPT, 1, 64 * 1024, 1), Kdf.defaults(Kdf.Algorithm.SCRYPT, 4096 * mib));
+        assertEquals(Kdf.of(Kdf.Algorithm.SCRYPT, 1, 16 * 1024, 1), Kdf.defaults(Kdf.Algorithm.SCRYPT, 100 * mib));
+        assertEquals(Kdf.defaults(Kdf.Algorithm.PBKDF2_SHA256), Kdf.defaults(Kdf.Algorithm.SCRYPT, 48 * mib));
+    }
+
+    @Test
+    public void parametersTest() throws Exception {
+        final Kdf kdf = Kdf.of(Kdf.Algorithm.SCRYPT, 1, 16 * 1024, 1);
+        assertEquals(kdf, Kdf.of(Kdf.Algorithm.byId(kdf.getAlgorithm().getId()),
+                kdf.getIterations(), kdf.getMemoryKiB(), kdf.getParallelism()));
+        assertNotEquals(kdf, Kdf.defaults(Kdf.Algorithm.SCRYPT));
+        assertEquals(32, kdf.derive("password", new byte[16], 32).length);
+
+        final int[][] invalid = {
+                {1, 1000, 0, 1},                // too few PBKDF2 iterations
+                {2, 1, 3 * 1024, 1},            // scrypt N not a power of two
+                {2, 1, 16 * 1024 * 1024, 1},    // 16 GiB
+                {2, 1, 512 * 1024, 1},          // above what calibrate() picks
+                {2, 1, 16 * 1024, 0},
+        };
+        for (final int[] p : invalid) {
+            try {
+                Kdf.of(Kdf.Algorithm.byId((byte) p[0]), p[1], p[2], p[3]);
+                fail("accepted " + java.util.Arrays.toString(p));
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
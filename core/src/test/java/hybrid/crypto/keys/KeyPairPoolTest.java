@@ -0,0 +1,76 @@
+package hybrid.crypto.keys;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class KeyPairPoolTest {
+
+    @After
+    public void tearDown() {
+        KeyPairPool.stop();
+    }
+
+    private static void awaitFull(final Type type, final int capacity) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 120_000;
+        while (KeyPairPool.stats().getDepth().get(type) < capacity) {
+            if (System.currentTimeMillis() > deadline) fail("pool not refilled");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    public void takeFromPoolTest() throws Exception {
+        KeyPairPool.start(EnumSet.of(Type.RSA_1, Type.RSA_2), 1, 2);
+        awaitFull(Type.RSA_1, 1);
+        awaitFull(Type.RSA_2, 1);
+
+        final long hits = KeyPairPool.stats().getHits();
+        final MyKeyPair keyPair = KeyPairPool.take(Type.RSA_1);
+        assertEquals(Type.RSA_1, keyPair.publicRsaKey.getType());
+        assertEquals(Type.RSA_1, keyPair.privateRsaKey.getType());
+        assertEquals(hits + 1, KeyPairPool.stats().getHits());
+
+        final byte[] data = "pooled".getBytes();
+        assertArrayEquals(data, keyPair.privateRsaKey.decrypt(keyPair.publicRsaKey.encrypt(data)));
+
+        awaitFull(Type.RSA_1, 1);
+        final KeyPairPool.Stats stats = KeyPairPool.stats();
+        assertTrue(stats.getGenerated() >= 3);
+        assertTrue(stats.getMeanRefillMillis() > 0);
+        assertNotSame(keyPair, KeyPairPool.take(Type.RSA_1));
+    }
+
+    @Test
+    public void stoppedPoolGeneratesTest() throws Exception {
+        assertFalse(KeyPairPool.isRunning());
+        final long misses = KeyPairPool.stats().getMisses();
+        final MyKeyPair keyPair = KeyPairPool.take(Type.RSA_2);
+        assertEquals(Type.RSA_2, keyPair.publicRsaKey.getType());
+        assertEquals(misses + 1, KeyPairPool.stats().getMisses());
+    }
+
+    @Test
+    public void unpooledTypeGeneratesTest() throws Exception {
+        KeyPairPool.start(EnumSet.of(Type.EC_1), 1, 1);
+        awaitFull(Type.EC_1, 1);
+        assertEquals(EnumSet.of(Type.EC_1), KeyPairPool.stats().getDepth().keySet());
+
+        final long misses = KeyPairPool.stats().getMisses();
+        assertEquals(Type.RSA_1, KeyPairPool.take(Type.RSA_1).publicRsaKey.getType());
+        assertEquals(misses + 1, KeyPairPool.stats().getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void symmetricTypeTest() throws Exception {
+        KeyPairPool.take(Type.AES_1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void symmetricTypePooledTest() {
+        KeyPairPool.start(EnumSet.of(Type.AES_2), 1, 1);
+    }
+}
@@ -0,0 +1,109 @@
+package hybrid.crypto.metrics;
+
+import hybrid.crypto.keys.KeyPairPool;
+import hybrid.crypto.keys.SymmetricKeys;
+import hybrid.crypto.keys.Type;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void bucketTest() {
+        assertEquals(0, StageMetrics.bucket(999));
+        assertEquals(1, StageMetrics.bucket(1_000));
+        assertEquals(1, StageMetrics.bucket(1_999));
+        assertEquals(2, StageMetrics.bucket(2_000));
+        assertEquals(11, StageMetrics.bucket(1_500_000));
+        assertEquals(StageMetrics.BUCKETS - 1, StageMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentileTest() {
+        final StageMetrics metrics = new StageMetrics(Stage.KDF);
+        for (int i = 0; i < 98; i++) metrics.record(1_500_000, 10, false);
+        metrics.record(40_000_000, 10, false);
+        metrics.record(40_000_000, 0, true);
+
+        assertEquals(100, metrics.getCount());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(990, metrics.getBytes());
+        assertEquals(2.048, metrics.getP50Millis(), 1e-9);
+        assertEquals(40.0, metrics.getP99Millis(), 1e-9);
+        assertEquals(40.0, metrics.getMaxMillis(), 1e-9);
+        assertEquals((98 * 1.5 + 2 * 40) / 100, metrics.getMeanMillis(), 1e-9);
+
+        metrics.reset();
+        assertEquals(0, metrics.getCount());
+        assertEquals(0, metrics.getP99Millis(), 0);
+    }
+
+    @Test
+    public void aesStageTest() throws Exception {
+        final SymmetricKeys key = SymmetricKeys.generateKey(Type.AES_2, "1234567890");
+        assertNotNull(key);
+        final StageMetrics encrypt = Metrics.get(Stage.AES_ENCRYPT);
+        final StageMetrics decrypt = Metrics.get(Stage.AES_DECRYPT);
+        final long calls = encrypt.getCount();
+        final long bytes = encrypt.getBytes();
+        final long errors = decrypt.getErrors();
+
+        final byte[] enc = key.encrypt(new byte[1000]);
+        enc[enc.length - 1] ^= 1;
+        try {
+            key.decrypt(enc);
+            fail("tampered ciphertext accepted");
+        } catch (Exception expected) {
+        }
+
+        assertEquals(calls + 1, encrypt.getCount());
+        assertEquals(bytes + 1000, encrypt.getBytes());
+        assertEquals(errors + 1, decrypt.getErrors());
+
+        final long decrypted = decrypt.getBytes();
+        final ByteArrayOutputStream streamEnc = new ByteArrayOutputStream();
+        key.encrypt(new ByteArrayInputStream(new byte[3000]), streamEnc);
+        key.decrypt(new ByteArrayInputStream(streamEnc.toByteArray()), new ByteArrayOutputStream());
+        assertEquals(bytes + 4000, encrypt.getBytes());
+        assertEquals(decrypted + streamEnc.size(), decrypt.getBytes());
+    }
+
+    @Test
+    public void mxBeanTest() throws Exception {
+        assertTrue(Metrics.register());
+        assertTrue(Metrics.register());
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (final Stage stage : Stage.values()) {
+            assertTrue(stage.name(), server.isRegistered(Metrics.objectName(stage)));
+        }
+        assertEquals(Metrics.get(Stage.KDF).getCount(),
+                server.getAttribute(Metrics.objectName(Stage.KDF), "Count"));
+        assertEquals(StageMetrics.BUCKETS,
+                ((long[]) server.getAttribute(Metrics.objectName(Stage.KDF), "BucketCounts")).length);
+        assertEquals(KeyPairPool.stats().getMisses(),
+                server.getAttribute(Metrics.keyPairPoolName(), "Misses"));
+        assertNotNull(server.getAttribute(Metrics.keyPairPoolName(), "Depth"));
+    }
+
+    @Test
+    public void keyPairPoolDepthTest() {
+        KeyPairPool.start(EnumSet.of(Type.RSA_1, Type.RSA_2), 1, 1);
+        try {
+            final Map<String, Integer> depth = new KeyPairPoolMetrics().getDepth();
+            assertTrue(depth.containsKey(Type.RSA_1.name()));
+            assertTrue(depth.containsKey(Type.RSA_2.name()));
+            assertFalse(depth.containsKey(Type.EC_1.name()));
+            assertEquals(KeyPairPool.stats().getDepth().size(), depth.size());
+        } finally {
+            KeyPairPool.stop();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package hybrid.crypto.metrics;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.databases.Card;
+import hybrid.crypto.databases.Identifier;
+import hybrid.crypto.databases.Message;
+import hybrid.crypto.keys.AsymmetricKeys;
+import hybrid.crypto.keys.MyKeyPair;
+import hybrid.crypto.keys.PrivateRsaKey;
+import hybrid.crypto.keys.PublicRsaKey;
+import hybrid.crypto.keys.Type;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TraceTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void disabledTest() {
+        assertSame(Trace.NONE, Trace.begin(Trace.Kind.KEY_GENERATION));
+    }
+
+    @Test
+    public void recordingTest() throws Exception {
+        final File badCard = File.createTempFile("card", ".json");
+        final Path dump = Files.createTempFile("trace", ".jfr");
+        try {
+            Files.write(badCard.toPath(), "{\"card\": 1}".getBytes(StandardCharsets.UTF_8));
+            try (Recording recording = new Recording()) {
+                recording.enable("hybrid.crypto.KeyGeneration");
+                recording.enable("hybrid.crypto.CardRead");
+                recording.start();
+                AsymmetricKeys.generatePair(Type.EC_1, "1234567890");
+                try {
+                    Card.fromJsonFile(badCard);
+                    fail("corrupted card accepted");
+                } catch (Exception expected) {
+                }
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("hybrid.crypto."))
+                    .collect(Collectors.toList());
+            assertEquals(2, events.size());
+
+            final RecordedEvent keyGeneration = events.get(0);
+            assertEquals("hybrid.crypto.KeyGeneration", keyGeneration.getEventType().getName());
+            assertEquals(Type.EC_1.name(), keyGeneration.getString("keyType"));
+            assertEquals("succeeded", keyGeneration.getString("outcome"));
+            assertTrue(keyGeneration.getLong("payloadSize") > 0);
+
+            final RecordedEvent cardRead = events.get(1);
+            assertEquals("hybrid.crypto.CardRead", cardRead.getEventType().getName());
+            assertEquals("failed", cardRead.getString("outcome"));
+            assertEquals(badCard.length(), cardRead.getLong("payloadSize"));
+            assertNotNull(cardRead.getString("failure"));
+        } finally {
+            Files.deleteIfExists(badCard.toPath());
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    public void containerRecordingTest() throws Exception {
+        final MyKeyPair pair = AsymmetricKeys.generatePair(Type.EC_1, "1234567890");
+        final Card card = new Card(new Identifier(), "receiver", (PublicRsaKey) pair.publicRsaKey);
+        final File plain = folder.newFile("plain.txt");
+        Files.write(plain.toPath(), new byte[10_000]);
+        final Path dump = folder.newFile("trace.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("hybrid.crypto.MessageEncrypt");
+            recording.enable("hybrid.crypto.MessageDecrypt");
+            recording.start();
+            final File container = new Message(card, new Identifier(), plain)
+                    .encryptAndSaveToContainer(OutputPolicy.inDirectory(folder.newFolder()));
+            Message.recreateFileFromContainer(card, (PrivateRsaKey) pair.privateRsaKey, container,
+                    OutputPolicy.inDirectory(folder.newFolder()));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().startsWith("hybrid.crypto."))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertEquals("hybrid.crypto.MessageEncrypt", events.get(0).getEventType().getName());
+        assertEquals(plain.length(), events.get(0).getLong("payloadSize"));
+        assertEquals("hybrid.crypto.MessageDecrypt", events.get(1).getEventType().getName());
+        for (final RecordedEvent event : events) {
+            assertEquals(Type.EC_1.name(), event.getString("keyType"));
+            assertEquals("succeeded", event.getString("outcome"));
+        }
+    }
+}
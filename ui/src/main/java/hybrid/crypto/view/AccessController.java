@@ -1,26 +1,21 @@
 package hybrid.crypto.view;
 
-import hybrid.crypto.algorithms.AsyncTask;
-import hybrid.crypto.algorithms.PswdStrength;
 import hybrid.crypto.algorithms.Validation;
 import hybrid.crypto.databases.Database;
+import hybrid.crypto.databases.ProfileCatalog;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
-import org.apache.commons.io.FileUtils;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
 
+import static hybrid.crypto.algorithms.Utils.*;
 import static hybrid.crypto.algorithms.Validation.*;
-import static hybrid.crypto.databases.Database.EXTENSION;
 import static hybrid.crypto.databases.Database.getDatabaseFile;
 import static hybrid.crypto.view.Main.*;
 
@@ -39,7 +34,12 @@ public class AccessController {
     @FXML private Button openDatabaseBtn;
     @FXML private Button reloadDatabasesBtn;
 
-    private static class ProfileFile implements Comparable<ProfileFile> {
+    /**
+     * shared by every unlock screen; watches the data directory from the first one on
+     */
+    private static final ProfileCatalog CATALOG = new ProfileCatalog(USER_DATA_DIR);
+
+    private static class ProfileFile {
         public final File file;
         private ProfileFile(File file) {
             this.file = file;
@@ -50,46 +50,27 @@ public class AccessController {
                     Pattern.quote(USER_DATA_DIR.toFile().getAbsolutePath()),
                     "");
         }
-        @Override
-        public int compareTo(ProfileFile o) {
-            try {
-                if(FileUtils.contentEquals(this.file, o.file)) {
-                    return 0;
-                }
-                else return this.file.getAbsolutePath().
-                        compareTo(o.file.getAbsolutePath());
-            } catch (IOException e) {
-                return -1;
-            }
-        }
     }
 
-    private Set<ProfileFile> getListOfDatabases() {
-        final List<Path> paths = new LinkedList<>();
-        try {
-            Files.walk(USER_DATA_DIR)
-                    .filter(
-                            p -> Files.exists(p)
-                                    && (!Files.isDirectory(p))
-                                    && Files.isRegularFile(p)
-                                    && p.toFile().getName().length() > EXTENSION.length()
-                                    && p.toFile().getName().endsWith(EXTENSION)
-                    )
-                    .forEach(paths::add);
-        } catch (Exception e) {
-            paths.clear();
+    /**
+     * keeps the selected profile selected
+     */
+    private void showDatabases(final List<ProfileCatalog.Entry> entries) {
+        final ProfileFile selected = databaseComboBox.getSelectionModel().getSelectedItem();
+        databaseComboBox.getItems().clear();
+        for (final ProfileCatalog.Entry entry : entries) {
+            final ProfileFile profileFile = new ProfileFile(entry.getPath().toFile());
+            databaseComboBox.getItems().add(profileFile);
+            if (selected != null && selected.file.equals(profileFile.file)) {
+                databaseComboBox.getSelectionModel().select(profileFile);
+            }
         }
-        final Set<ProfileFile> files = new TreeSet<>();
-        for (Path p : paths) files.add(new ProfileFile(p.toFile()));
-        openDatabaseBtn.setDisable(files.size() < 1);
-        return files;
+        openDatabaseBtn.setDisable(entries.isEmpty());
     }
 
     @FXML
     private void reloadDatabasesBtnClicked(ActionEvent event) {
-        final Set<ProfileFile> set = getListOfDatabases();
-        databaseComboBox.getItems().clear();
-        databaseComboBox.getItems().addAll(set);
+        showDatabases(CATALOG.refresh());
     }
 
     @FXML
@@ -120,7 +101,6 @@ public class AccessController {
                 try {
                     final Database database = Database.decryptDatabaseAndLoad(file, pswd);
                     DatabaseController.setDatabase(database);
-                    DatabaseController.setPswd(pswd.getBytes());
                     startWhenDatabaseJustOpened();
                 } catch (javax.crypto.BadPaddingException badPaddingException) {
                     Platform.runLater(() ->
@@ -143,7 +123,7 @@ public class AccessController {
             openDatabaseDisable(true);
             final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
             asyncTask.noAlertsOnSucceeded();
-            asyncTask.startNewThread();
+            asyncTask.start();
         }
     }
 
@@ -201,13 +181,19 @@ public class AccessController {
             };
             newDatabaseDisable(true);
             final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-            asyncTask.startNewThread();
+            asyncTask.start();
         }
     }
 
     @FXML
     private void initialize() {
         createDatabaseBtn.setDisable(true);
+        CATALOG.setListener(() -> Platform.runLater(() -> showDatabases(CATALOG.getEntries())));
+        try {
+            CATALOG.watch();
+        } catch (Exception e) {
+            errPrintln(e);
+        }
         reloadDatabasesBtnClicked(null);
 
         newDatabaseName.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -0,0 +1,197 @@
+package hybrid.crypto.view;
+
+import hybrid.crypto.algorithms.Progress;
+import hybrid.crypto.algorithms.Utils;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.concurrent.Task;
+import javafx.scene.control.Alert;
+import lombok.NonNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static hybrid.crypto.view.Main.showDialog;
+
+/**
+ * a background job of the GUI with a result dialog; all jobs share one bounded pool of
+ * daemon threads ("ui-task-N"), extra jobs wait in its queue
+ */
+public class AsyncTask {
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int QUEUE_SIZE = 64;
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    /**
+     * the work itself; long encryptions and decryptions hand the progress to the core
+     */
+    public interface Job {
+        void run(@NonNull Progress progress) throws Exception;
+    }
+
+    private final AtomicBoolean showOnSucceeded = new AtomicBoolean(true);
+    private final JobTask task;
+    private final Callable<Void> onFailedToDo;
+    private final String failureDialogText;
+    private final AtomicLong start = new AtomicLong(0);
+
+    private static ExecutorService newExecutor() {
+        final AtomicInteger threadNo = new AtomicInteger(0);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                THREADS, THREADS, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                r -> {
+                    final Thread t = new Thread(r, "ui-task-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public void noAlertsOnSucceeded() {
+        this.showOnSucceeded.set(false);
+    }
+
+    public AsyncTask(@NonNull final Callable<Void> toDo,
+                     @NonNull final Callable<Void> onSucceededToDo,
+                     @NonNull final Callable<Void> onFailedToDo) {
+        this(progress -> toDo.call(), onSucceededToDo, onFailedToDo);
+    }
+
+    public AsyncTask(@NonNull final Callable<Void> toDo,
+                     @NonNull final Callable<Void> onSucceededToDo,
+                     @NonNull final Callable<Void> onFailedToDo,
+                     @NonNull final String successDialogText,
+                     @NonNull final String failureDialogText) {
+        this(progress -> toDo.call(), onSucceededToDo, onFailedToDo, successDialogText, failureDialogText);
+    }
+
+    public AsyncTask(@NonNull final Job job,
+                     @NonNull final Callable<Void> onSucceededToDo,
+                     @NonNull final Callable<Void> onFailedToDo) {
+        this(
+                job, onSucceededToDo, onFailedToDo,
+                "Process completed successfully.",
+                "An error occured!"
+                );
+    }
+
+    public AsyncTask(@NonNull final Job job,
+                     @NonNull final Callable<Void> onSucceededToDo,
+                     @NonNull final Callable<Void> onFailedToDo,
+                     @NonNull final String successDialogText,
+                     @NonNull final String failureDialogText) {
+
+        this.onFailedToDo = onFailedToDo;
+        this.failureDialogText = failureDialogText;
+        task = new JobTask(job);
+        task.exceptionProperty().addListener((observable, oldValue, newValue) ->  {
+            if(newValue != null && !(newValue instanceof CancellationException)) {
+                Exception ex = (Exception) newValue;
+                ex.printStackTrace();
+            }
+        });
+        task.setOnSucceeded(event1 -> {
+            final long millis = elapsedMillis();
+            try {
+                onSucceededToDo.call();
+            } catch (Exception e) {
+                Utils.errPrintln(e);
+            }
+            if(showOnSucceeded.get()) {
+                showDialog(
+                        successDialogText + String.format(" [%d ms]", millis),
+                        Alert.AlertType.INFORMATION);
+            }
+        });
+        task.setOnFailed(event12 -> {
+            if (task.getException() instanceof CancellationException) {
+                finished("Process cancelled.", Alert.AlertType.INFORMATION);
+            } else {
+                finished(failureDialogText, Alert.AlertType.ERROR);
+            }
+        });
+    }
+
+    private void finished(final String dialogText, final Alert.AlertType alertType) {
+        final long millis = elapsedMillis();
+        try {
+            onFailedToDo.call();
+        } catch (Exception e) {
+            Utils.errPrintln(e);
+        }
+        showDialog(dialogText + String.format(" [%d ms]", millis), alertType);
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start.get());
+    }
+
+    /**
+     * the size of the input, for the progress; unknown (indeterminate) by default
+     */
+    public void setTotalBytes(final long totalBytes) {
+        task.totalBytes.set(totalBytes);
+    }
+
+    /**
+     * 0..1 while the input bytes are processed, -1 when indeterminate
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return task.progressProperty();
+    }
+
+    public void start() {
+        start.set(System.nanoTime());
+        try {
+            EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            finished(failureDialogText + " Too many tasks are waiting.", Alert.AlertType.ERROR);
+        }
+    }
+
+    /**
+     * cooperative: the job stops at its next chunk (CancellationException), partial output is deleted;
+     * the task is not cancelled itself, so the handlers (and the "cancelled" dialog) only run
+     * once the job has returned
+     */
+    public void cancel() {
+        task.cancelRequested.set(true);
+    }
+
+    private static class JobTask extends Task<Void> {
+        private final Job job;
+        private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+        private final AtomicLong totalBytes = new AtomicLong(-1);
+        private final AtomicLong doneBytes = new AtomicLong(0);
+        private final Progress progress = new Progress() {
+            @Override
+            public void add(final long bytes) {
+                addBytes(bytes);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelRequested.get();
+            }
+        };
+
+        private JobTask(final Job job) {
+            this.job = job;
+        }
+
+        @Override
+        protected Void call() throws Exception {
+            job.run(progress);
+            return null;
+        }
+
+        private void addBytes(final long bytes) {
+            final long done = doneBytes.addAndGet(bytes);
+            final long total = totalBytes.get();
+            if (total > 0) updateProgress(Math.min(done, total), total);
+        }
+    }
+}
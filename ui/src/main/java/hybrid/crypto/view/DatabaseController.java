@@ -1,10 +1,15 @@
 package hybrid.crypto.view;
 
-import hybrid.crypto.algorithms.AsyncTask;
+import hybrid.crypto.algorithms.Notifications;
+import hybrid.crypto.algorithms.Notifier;
+import hybrid.crypto.algorithms.OutputPolicy;
+import hybrid.crypto.databases.BatchProcessor;
 import hybrid.crypto.databases.Card;
+import hybrid.crypto.databases.CardBundle;
 import hybrid.crypto.databases.Database;
 import hybrid.crypto.databases.Message;
 import hybrid.crypto.databases.Mode;
+import hybrid.crypto.databases.ProfileSaveQueue;
 import hybrid.crypto.keys.PrivateRsaKey;
 import hybrid.crypto.keys.PublicRsaKey;
 import javafx.application.Platform;
@@ -13,15 +18,23 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
 import lombok.Getter;
-import lombok.Setter;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 
+import static hybrid.crypto.algorithms.Utils.*;
 import static hybrid.crypto.algorithms.Validation.isEmpty;
 import static hybrid.crypto.algorithms.Validation.isFileGood;
 import static hybrid.crypto.databases.Database.getDatabaseDir;
@@ -31,44 +44,61 @@ public class DatabaseController {
     @FXML private javafx.scene.text.Text databaseName;
     @FXML private ComboBox<Card> cardsComboBox;
     @FXML private Button addCardFromFile;
+    @FXML private Button importCardsBtn;
+    @FXML private Button exportCardsBtn;
     @FXML private Button lockBtn;
     @FXML private Button createMyCardBtn;
     @FXML private Button chooseFileToProcBtn;
+    @FXML private Button chooseDirToProcBtn;
     @FXML private TextField pathToFileToProc;
     @FXML private Button startProcBtn;
     @FXML private ComboBox<Mode> modeComboBox;
     @FXML private Button removeCardBtn;
     @FXML private Button genNewAsymKeysBtn;
+    @FXML private Button cancelProcBtn;
+    @FXML private ProgressBar procProgress;
 
-    @Getter @Setter
+    /* the running encryption or decryption, FX thread only */
+    private AsyncTask procTask;
+
+    @Getter
     private static Database database;
-    @Setter private static byte[] pswd;
+    private static ProfileSaveQueue saveQueue;
 
+    /**
+     * the open profile gets its own save queue; the previous one is flushed first
+     */
+    public static synchronized void setDatabase(final Database newDatabase) {
+        if (saveQueue != null) {
+            try {
+                saveQueue.close();
+            } catch (IOException e) {
+                errPrintln(e);
+            }
+            saveQueue = null;
+        }
+        database = newDatabase;
+        if (newDatabase != null) saveQueue = new ProfileSaveQueue(newDatabase);
+    }
 
-    private void overwriteDatabaseFile() {
-        final Callable<Void> toDo = () -> {
-            database.encryptAndSaveDatabase(new String(pswd));
-            return null;
-        };
-        final Callable<Void> onSucceededToDo = () -> {
-            return null;
-        };
-        final Callable<Void> onFailedToDo = () -> {
-            return null;
-        };
-        final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.noAlertsOnSucceeded();
-        asyncTask.startNewThread();
-    };
+    /**
+     * saved by the profile's writer thread; a burst of changes is saved once
+     */
+    private static synchronized void overwriteDatabaseFile() {
+        if (saveQueue != null) saveQueue.requestSave();
+    }
 
     private void disableAll(final boolean disable) {
         Platform.runLater(() -> {
             databaseName.setDisable(disable);
             cardsComboBox.setDisable(disable);
             addCardFromFile.setDisable(disable);
+            importCardsBtn.setDisable(disable);
+            exportCardsBtn.setDisable(disable);
             lockBtn.setDisable(disable);
             createMyCardBtn.setDisable(disable);
             chooseFileToProcBtn.setDisable(disable);
+            chooseDirToProcBtn.setDisable(disable);
             pathToFileToProc.setDisable(disable);
             startProcBtn.setDisable(disable);
             modeComboBox.setDisable(disable);
@@ -110,7 +140,7 @@ public class DatabaseController {
         };
         disableAll(true);
         final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.startNewThread();
+        asyncTask.start();
     }
 
     @FXML
@@ -134,7 +164,65 @@ public class DatabaseController {
         };
         disableAll(true);
         final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.startNewThread();
+        asyncTask.start();
+    }
+
+    /**
+     * any number of card files and bundles; merged and saved once
+     */
+    @FXML
+    private void importCardsBtnClicked(ActionEvent event) {
+        final FileChooser fileChooser = new FileChooser();
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON (*.json)", "*.json"));
+        fileChooser.setInitialDirectory(getDatabaseDir(database.getDatabaseName()));
+        final List<File> files = fileChooser.showOpenMultipleDialog(null);
+        if(files == null || files.isEmpty()) return;
+        final Callable<Void> toDo = () -> {
+            final CardBundle.Import cards = CardBundle.read(files, Runtime.getRuntime().availableProcessors());
+            if(!cards.getFailures().isEmpty()) {
+                Notifications.notify(cards.toString(), Notifier.Level.WARNING);
+            }
+            database.addCards(cards.getCards());
+            updateCardsComboBox();
+            overwriteDatabaseFile();
+            return null;
+        };
+        final Callable<Void> onSucceededToDo = () -> {
+            disableAll(false);
+            return null;
+        };
+        final Callable<Void> onFailedToDo = () -> {
+            disableAll(false);
+            return null;
+        };
+        disableAll(true);
+        final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
+        asyncTask.noAlertsOnSucceeded();
+        asyncTask.start();
+    }
+
+    @FXML
+    private void exportCardsBtnClicked(ActionEvent event) {
+        final Callable<Void> toDo = () -> {
+            final File databaseDir = getDatabaseDir(database.getDatabaseName());
+            final File output = Paths.get(databaseDir.getAbsolutePath(),
+                    database.getDatabaseName() + "-cards.json").toFile();
+            final File usersChoice = SaveAsOutputPolicy.getSaveAsOutputFile(databaseDir, output,
+                    "JSON (*.json)", "*.json");
+            CardBundle.write((usersChoice != null) ? (usersChoice) : (output), database.getCardList());
+            return null;
+        };
+        final Callable<Void> onSucceededToDo = () -> {
+            disableAll(false);
+            return null;
+        };
+        final Callable<Void> onFailedToDo = () -> {
+            disableAll(false);
+            return null;
+        };
+        disableAll(true);
+        final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
+        asyncTask.start();
     }
 
     @FXML
@@ -142,7 +230,12 @@ public class DatabaseController {
         final Card card = cardsComboBox.getSelectionModel().getSelectedItem();
         if(card == null) return;
         final Callable<Void> toDo = () -> {
-            card.toJsonFile();
+            final File databaseDir = getDatabaseDir(database.getDatabaseName());
+            final File output = Paths.get(databaseDir.getAbsolutePath(),
+                    byteArrToHexStr(card.getPersonId().getIdBytes()) + ".json").toFile();
+            final File usersChoice = SaveAsOutputPolicy.getSaveAsOutputFile(databaseDir, output,
+                    "JSON (*.json)", "*.json");
+            card.toJsonFile((usersChoice != null) ? (usersChoice) : (output));
             return null;
         };
         final Callable<Void> onSucceededToDo = () -> {
@@ -155,7 +248,7 @@ public class DatabaseController {
         };
         disableAll(true);
         final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.startNewThread();
+        asyncTask.start();
     }
 
     @FXML
@@ -169,10 +262,24 @@ public class DatabaseController {
         }
     }
 
+    @FXML
+    private void chooseDirToProcBtnClicked(ActionEvent event) {
+        final DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setInitialDirectory(getDatabaseDir(database.getDatabaseName()));
+        final File dir = directoryChooser.showDialog(null);
+        if (dir == null || !dir.isDirectory()) {
+            pathToFileToProc.setText("");
+        }
+        else {
+            pathToFileToProc.setText(dir.getAbsolutePath());
+        }
+    }
+
     @FXML
     private void lockBtnClicked(ActionEvent event) {
-        secureRandom.nextBytes(pswd);
+        final Database locked = database;
         setDatabase(null);
+        locked.lock();
         final Stage stage = (Stage) modeComboBox.getScene().getWindow();
         Platform.runLater(() -> {
             stage.close();
@@ -198,7 +305,7 @@ public class DatabaseController {
         };
         disableAll(true);
         final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.startNewThread();
+        asyncTask.start();
     }
 
     @FXML
@@ -206,7 +313,8 @@ public class DatabaseController {
         final String filePath = pathToFileToProc.getText();
         if (isEmpty(filePath)) return;
         final File file = new File(filePath);
-        if (!isFileGood(file)) {
+        final boolean batch = file.isDirectory();
+        if (!batch && !isFileGood(file)) {
             showDialog(
                     String.format("Selected file '%s' does not exist!",
                             file.getName()),
@@ -243,26 +351,63 @@ public class DatabaseController {
 
         /* * * * * * * * * * * * * * * * * * * * * * * * * * */
 
-        final Callable<Void> toDo = () -> {
-            if(encOpt) {
+        final List<File> files = (batch) ? (BatchProcessor.listFiles(file)) : (Collections.singletonList(file));
+        final AsyncTask.Job toDo = progress -> {
+            if(batch) {
+                final BatchProcessor batchProcessor = new BatchProcessor(database, mode,
+                        Collections.singletonList(card),
+                        OutputPolicy.inDirectory(getDatabaseDir(database.getDatabaseName())),
+                        false);
+                final BatchProcessor.Summary summary = batchProcessor.process(files, progress);
+                if (progress.isCancelled()) throw new CancellationException("cancelled");
+                Platform.runLater(() -> showDialog(summary.toString(),
+                        (summary.count(BatchProcessor.Status.FAILED) > 0)
+                                ? (Alert.AlertType.WARNING)
+                                : (Alert.AlertType.INFORMATION)));
+            } else if(encOpt) {
                 final Message msg = new Message(card, database.getOwnerId(), file);
-                msg.encryptAndSaveToJson();
+                final SaveAsOutputPolicy outputPolicy =
+                        new SaveAsOutputPolicy(getDatabaseDir(database.getDatabaseName()));
+                if(mode == Mode.ENCRYPTION_JSON) msg.encryptAndSaveToJson(outputPolicy, progress);
+                else msg.encryptAndSaveToContainer(outputPolicy, progress);
             } else {
-                Message.recreateFileFromJson(card, database.getOwnerPrivKey(), file);
+                Message.recreateFile(card, database.getOwnerPrivKey(), file,
+                        new SaveAsOutputPolicy(getDatabaseDir(database.getDatabaseName())), progress);
             }
-            return null;
         };
         final Callable<Void> onSucceededToDo = () -> {
-            disableAll(false);
+            procFinished();
             return null;
         };
         final Callable<Void> onFailedToDo = () -> {
-            disableAll(false);
+            procFinished();
             return null;
         };
         disableAll(true);
         final AsyncTask asyncTask = new AsyncTask(toDo, onSucceededToDo, onFailedToDo);
-        asyncTask.startNewThread();
+        if(batch) asyncTask.noAlertsOnSucceeded();
+        asyncTask.setTotalBytes(files.stream().mapToLong(File::length).sum());
+        procTask = asyncTask;
+        procProgress.progressProperty().bind(asyncTask.progressProperty());
+        procProgress.setVisible(true);
+        cancelProcBtn.setVisible(true);
+        cancelProcBtn.setDisable(false);
+        asyncTask.start();
+    }
+
+    private void procFinished() {
+        procTask = null;
+        procProgress.progressProperty().unbind();
+        procProgress.setVisible(false);
+        cancelProcBtn.setVisible(false);
+        disableAll(false);
+    }
+
+    @FXML
+    private void cancelProcBtnClicked(ActionEvent event) {
+        if (procTask == null) return;
+        cancelProcBtn.setDisable(true);
+        procTask.cancel();
     }
 
     @FXML
@@ -315,6 +460,22 @@ public class DatabaseController {
         modeComboBox.getItems().addAll(Mode.values());
         mode();
         databaseName.setText(database.getDatabaseName());
+        cardsComboBox.setConverter(new StringConverter<Card>() {
+            @Override
+            public String toString(Card card) {
+                if(card == null) return "";
+                if(database.getOwnerId().equals(card.getPersonId())) {
+                    return String.format("%s - profile owner (%s)", card.getPersonName(),
+                            byteArrToHexStr(card.getPersonId().getIdBytes()));
+                }
+                return card.toString();
+            }
+
+            @Override
+            public Card fromString(String string) {
+                return null;
+            }
+        });
         updateCardsComboBox();
     }
 }
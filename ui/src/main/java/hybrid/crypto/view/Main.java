@@ -1,5 +1,9 @@
 package hybrid.crypto.view;
 
+import hybrid.crypto.algorithms.Notifications;
+import hybrid.crypto.keys.KeyPairPool;
+import hybrid.crypto.keys.Type;
+import hybrid.crypto.metrics.Metrics;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -14,12 +18,11 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import lombok.NonNull;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.security.SecureRandom;
+import java.util.EnumSet;
 import java.util.Objects;
 
+import static hybrid.crypto.algorithms.Utils.*;
 import static java.lang.System.exit;
 
 public class Main extends Application {
@@ -31,33 +34,6 @@ public class Main extends Application {
     private final static int SCENE_WIDTH = 600;
     private final static int SCENE_HEIGHT = 450;
 
-    public final static SecureRandom secureRandom = new SecureRandom();
-    public final static String USER_DATA_DIR_NAME = "Java-Hybrid-Cryptosystem-Data";
-    public final static java.nio.file.Path FILESYSTEM_ROOT = File.listRoots()[0].toPath();
-    public final static java.nio.file.Path USER_DATA_DIR = Paths.get(FILESYSTEM_ROOT.toString(), USER_DATA_DIR_NAME);
-
-    public static void createDirIfNotExists(final java.nio.file.Path path) {
-        path.toFile().mkdir();
-    }
-
-    public static String randAlphabeticStr(final int length) {
-        final int leftLimit = 97; // 'a'
-        final int rightLimit = 122; // 'z'
-        return secureRandom.ints(leftLimit, rightLimit + 1)
-                .limit(length)
-                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
-                .toString();
-    }
-
-    public static String byteArrToHexStr(@NonNull final byte[] bytes) {
-        String str = "";
-        for (byte b : bytes) {
-            String tmp = String.format("%2x", b);
-            str += tmp.replaceAll(" ", "0");
-        }
-        return str;
-    }
-
     public static void showDialog(String message, Alert.AlertType alertType) {
         Alert alert = new Alert(alertType);
         alert.initStyle(StageStyle.UTILITY);
@@ -76,14 +52,6 @@ public class Main extends Application {
         alert.showAndWait();
     }
 
-    public static void errPrintln(Exception e) {
-        StackTraceElement l = e.getStackTrace()[0];
-        System.err.println("class: " + l.getClassName());
-        System.err.println("method: " + l.getMethodName());
-        System.err.println("line: " + l.getLineNumber());
-        System.err.println("msg: " + e.getMessage());
-    }
-
     public static void startWhenDatabaseJustClosed() {
         Platform.runLater(() -> stageStart(new Stage(), FXML_1_RES));
     }
@@ -110,6 +78,7 @@ public class Main extends Application {
             scene.getStylesheets().add(CSS_RES);
             stage.setOnCloseRequest(e -> {
                 System.out.println("exit");
+                DatabaseController.setDatabase(null);
                 Platform.exit();
                 exit(0);
             });
@@ -120,7 +89,13 @@ public class Main extends Application {
     @Override
     public void start(Stage stage) throws Exception {
         System.out.println("USER_DATA_DIR: " + USER_DATA_DIR);
+        Notifications.setNotifier((message, level) -> Platform.runLater(() ->
+                showDialog(message, Alert.AlertType.valueOf(level.name()))));
         secureRandom.nextBytes(new byte[SCENE_HEIGHT]);
+        Metrics.register();
+        // new profiles and key rotations draw RSA_1 or RSA_2; EC_1 pairs take milliseconds
+        KeyPairPool.start(EnumSet.of(Type.RSA_1, Type.RSA_2), 1,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
         stageStart(stage, FXML_1_RES);
     }
 
@@ -1,6 +1,6 @@
-package hybrid.crypto.algorithms;
+package hybrid.crypto.view;
 
-import hybrid.crypto.view.Main;
+import hybrid.crypto.algorithms.Utils;
 import javafx.application.Platform;
 import javafx.scene.control.Button;
 import javafx.scene.control.ProgressBar;
@@ -96,7 +96,7 @@ public class PswdStrength {
                 createBtn.setDisable(s < MIN_PWSD_VALUE);
             });
         } catch (Exception e) {
-            Main.errPrintln(e);
+            Utils.errPrintln(e);
         }
     }
 }
@@ -0,0 +1,59 @@
+package hybrid.crypto.view;
+
+import hybrid.crypto.algorithms.OutputPolicy;
+import javafx.application.Platform;
+import javafx.stage.FileChooser;
+import lombok.NonNull;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.concurrent.FutureTask;
+
+import static hybrid.crypto.algorithms.Utils.randAlphabeticStr;
+
+/**
+ * interactive: 'name[random].ext' in the profile directory, which the user may change in a save dialog
+ */
+public class SaveAsOutputPolicy implements OutputPolicy {
+    private final File databaseDir;
+
+    public SaveAsOutputPolicy(@NonNull final File databaseDir) {
+        this.databaseDir = databaseDir;
+    }
+
+    private File genOutput(@NonNull final String baseName, @NonNull final String ext) {
+        while (true) {
+            final File f = Paths.get(
+                    databaseDir.getAbsolutePath(),
+                    String.format("%s[%s].%s", baseName, randAlphabeticStr(9), ext)
+            ).toFile();
+            if (!f.exists()) return f;
+        }
+    }
+
+    @Override
+    public File resolve(@NonNull final String baseName, @NonNull final String ext) throws Exception {
+        final File output = genOutput(baseName, ext);
+        final File usersChoice = getSaveAsOutputFile(databaseDir, output,
+                ("*." + ext), ("*." + ext));
+        return (usersChoice != null) ? (usersChoice) : (output);
+    }
+
+    public static File getSaveAsOutputFile(
+            @NonNull final File databaseDir,
+            @NonNull final File defaultOutput,
+            @NonNull final String typeDescription,
+            @NonNull final String... extensions) throws Exception {
+
+        final FutureTask<File> futureTask = new FutureTask<>(() -> {
+            final FileChooser fileChooser = new FileChooser();
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                    typeDescription, extensions));
+            fileChooser.setInitialDirectory(databaseDir);
+            fileChooser.setInitialFileName(defaultOutput.getName());
+            return fileChooser.showSaveDialog(null);
+        });
+        Platform.runLater(futureTask);
+        return futureTask.get();
+    }
+}